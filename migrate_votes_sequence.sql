@@ -0,0 +1,19 @@
+-- PostgreSQL Migration: pooled sequence ids for votes
+-- Willows RTA Portal
+
+-- Vote ids are now generated from the votes_id_seq sequence with an
+-- allocation size of 50 so Hibernate can batch vote inserts.
+-- Existing databases created votes.id as an IDENTITY column whose backing
+-- sequence (votes_id_seq) increments by 1. Hibernate refuses to start when
+-- the sequence increment does not match the allocation size, so run this
+-- ONCE against an existing database BEFORE deploying the new version.
+-- (Fresh databases need nothing - Hibernate creates the sequence correctly.)
+
+ALTER TABLE votes ALTER COLUMN id SET INCREMENT BY 50;
+
+-- Hibernate treats each sequence value as the TOP of a block of 50 ids,
+-- so move the sequence far enough that the next block starts above every existing vote id
+SELECT setval('votes_id_seq', COALESCE((SELECT MAX(id) FROM votes), 0) + 50, false);
+
+-- Verify (increment_by should be 50)
+SELECT sequencename, increment_by, last_value FROM pg_sequences WHERE sequencename = 'votes_id_seq';
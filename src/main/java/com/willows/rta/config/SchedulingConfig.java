@@ -0,0 +1,12 @@
+package com.willows.rta.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled jobs (see MaintenanceScheduler)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
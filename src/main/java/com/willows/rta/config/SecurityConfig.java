@@ -1,5 +1,6 @@
 package com.willows.rta.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -13,9 +14,10 @@ import org.springframework.security.web.SecurityFilterChain;
 @EnableWebSecurity
 public class SecurityConfig {
 
+    // Hashing and verification go through PasswordHashingService, on its own executor
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.security.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 
     @Bean
@@ -29,9 +31,11 @@ public class SecurityConfig {
                 // Login and OTP authentication endpoints - must be public
                 .requestMatchers("/login", "/login-with-otp", "/verify-otp", "/resend-otp").permitAll()
                 // Analytics - read-only for members
-                .requestMatchers(HttpMethod.GET, "/admin/analytics").hasAnyRole("ADMIN", "MEMBER")
+                .requestMatchers(HttpMethod.GET, "/admin/analytics", "/admin/analytics/timeseries").hasAnyRole("ADMIN", "MEMBER")
                 // Admin-only pages
                 .requestMatchers("/admin/**").hasRole("ADMIN")
+                // Actuator metrics - admin only
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 // Notice board - admin can create/edit, all authenticated users can view
                 .requestMatchers("/notices/create", "/notices/edit/**", "/notices/delete/**", "/notices/toggle-pin/**").hasRole("ADMIN")
                 .requestMatchers("/notices").authenticated()
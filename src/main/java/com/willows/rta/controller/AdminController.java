@@ -3,9 +3,13 @@ package com.willows.rta.controller;
 import com.willows.rta.model.Member;
 import com.willows.rta.model.User;
 import com.willows.rta.model.Block;
+import com.willows.rta.repository.MemberRepository;
 import com.willows.rta.service.BlockService;
+import com.willows.rta.service.DashboardCounterService;
+import com.willows.rta.service.ExportJobService;
 import com.willows.rta.service.MemberExportService;
 import com.willows.rta.service.MemberService;
+import com.willows.rta.service.MembershipTimeSeriesService;
 import com.willows.rta.service.UserService;
 
 import jakarta.servlet.http.HttpServletResponse;
@@ -15,6 +19,11 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
@@ -23,9 +32,11 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.security.SecureRandom;
+import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Controller
@@ -36,14 +47,22 @@ public class AdminController {
     private final UserService userService;
     private final BlockService blockService;
     private final MemberExportService exportService;
+    private final MembershipTimeSeriesService membershipTimeSeriesService;
+    private final ExportJobService exportJobService;
+    private final DashboardCounterService dashboardCounterService;
 
 
     @Autowired
-    public AdminController(MemberService memberService, UserService userService, BlockService blockService, MemberExportService exportService) {
+    public AdminController(MemberService memberService, UserService userService, BlockService blockService, MemberExportService exportService,
+                           MembershipTimeSeriesService membershipTimeSeriesService, ExportJobService exportJobService,
+                           DashboardCounterService dashboardCounterService) {
         this.memberService = memberService;
         this.userService = userService;
         this.blockService = blockService;
         this.exportService = exportService;
+        this.membershipTimeSeriesService = membershipTimeSeriesService;
+        this.exportJobService = exportJobService;
+        this.dashboardCounterService = dashboardCounterService;
     }
 
     // Admin dashboard
@@ -51,9 +70,10 @@ public class AdminController {
     public String adminDashboard(Model model, Authentication authentication) {
         model.addAttribute("username", authentication.getName());
         model.addAttribute("isAdmin", true);
-        model.addAttribute("totalMembers", memberService.getTotalMemberCount());
-        model.addAttribute("activeMembers", memberService.getActiveMemberCount());
-        model.addAttribute("membersWithoutAccounts", memberService.getMembersWithoutAccounts().size());
+        DashboardCounterService.Counters counters = dashboardCounterService.getCounters();
+        model.addAttribute("totalMembers", counters.getTotalMembers());
+        model.addAttribute("activeMembers", counters.getActiveMembers());
+        model.addAttribute("membersWithoutAccounts", counters.getMembersWithoutAccounts());
         return "admin/dashboard";
     }
 
@@ -65,26 +85,22 @@ public class AdminController {
         
         model.addAttribute("username", authentication.getName());
         
-        // Get paginated members
-        Page<Member> memberPage = memberService.findAll(pageable);
-        List<Member> members = memberPage.getContent();
+        // Get paginated members with their login status (one query, left join on users.member_id)
+        Page<MemberRepository.MemberWithAccount> memberPage = memberService.findAllWithAccount(pageable);
+        List<MemberRepository.MemberWithAccount> members = memberPage.getContent();
         
-        // Populate user status for each member
-        for (Member member : members) {
+        // Recent failed logins per account username, from the in-memory login throttle
+        Map<String, Integer> failedLogins = new HashMap<>();
+        for (MemberRepository.MemberWithAccount row : members) {
+            Member member = row.getMember();
             if (member.isHasUserAccount()) {
-                Optional<User> userOpt = userService.getUserByUsername(member.getEmail());
-                if (userOpt.isPresent()) {
-                    User user = userOpt.get();
-                    member.setUserEnabled(user.isEnabled());
-                    member.setUserAccountLocked(user.isAccountLocked());
-                    member.setUserFailedAttempts(user.getFailedLoginAttempts());
-                    member.setUserRole(user.getRole());
-                }
+                failedLogins.put(member.getEmail(), userService.getRecentFailedLogins(member.getEmail()));
             }
         }
         
         // Add members and pagination info to model
         model.addAttribute("members", members);
+        model.addAttribute("failedLogins", failedLogins);
         model.addAttribute("memberPage", memberPage);
         model.addAttribute("currentPage", memberPage.getNumber());
         model.addAttribute("totalPages", memberPage.getTotalPages());
@@ -152,8 +168,6 @@ public class AdminController {
                     newUser.setMember(savedMember);
                     
                     // Update member record
-                    savedMember.setHasUserAccount(true);
-                    savedMember.setAccountCreationMethod("ADMIN_CREATED");
                     memberService.updateMemberAccountStatus(savedMember.getId(), true, "ADMIN_CREATED");
                     
                     redirectAttributes.addFlashAttribute("successMessage", "Member added successfully with login account!");
@@ -180,8 +194,13 @@ public class AdminController {
 
     // View members without accounts
     @GetMapping("/members/no-accounts")
-    public String viewMembersWithoutAccounts(Model model) {
-        model.addAttribute("members", memberService.getMembersWithoutAccounts());
+    public String viewMembersWithoutAccounts(Model model,
+                                             @RequestParam(required = false) String q,
+                                             @PageableDefault(size = 50, sort = "fullName") Pageable pageable) {
+        Page<Member> memberPage = memberService.searchMembers(null, null, false, q, pageable);
+        model.addAttribute("members", memberPage.getContent());
+        model.addAttribute("memberPage", memberPage);
+        model.addAttribute("q", q);
         return "admin/members-no-accounts";
     }
 
@@ -195,7 +214,10 @@ public class AdminController {
         // If member has user account, get the user details
         if (member.isHasUserAccount()) {
             Optional<User> userOpt = userService.getUserByUsername(member.getEmail());
-            userOpt.ifPresent(user -> model.addAttribute("user", user));
+            userOpt.ifPresent(user -> {
+                model.addAttribute("user", user);
+                model.addAttribute("recentFailedLogins", userService.getRecentFailedLogins(user.getUsername()));
+            });
         }
         
         return "admin/member-details";
@@ -566,6 +588,19 @@ public class AdminController {
         return "admin/analytics";
     }
 
+    /**
+     * Membership activity per day for the growth chart (read from the daily buckets)
+     */
+    @GetMapping("/analytics/timeseries")
+    @ResponseBody
+    public List<MembershipTimeSeriesService.DailyPoint> getAnalyticsTimeSeries(
+            @RequestParam(defaultValue = "90") int days,
+            @RequestParam(required = false) Long blockId) {
+        LocalDate to = LocalDate.now();
+        LocalDate from = to.minusDays(Math.max(1, days) - 1);
+        return membershipTimeSeriesService.getDailySeries(from, to, blockId);
+    }
+
     /**
      * Delete user account for member
      */
@@ -612,36 +647,94 @@ public class AdminController {
             @RequestParam(defaultValue = "csv") String format,
             HttpServletResponse response) throws IOException {
         
-        // Get filtered members
-        List<Member> members = memberService.getFilteredMembers(block, status, hasAccount);
-        
         // Build filename
         String filename = buildExportFilename(block, status, hasAccount, format);
         
         // Export based on format
         if ("xlsx".equalsIgnoreCase(format)) {
-            exportToExcel(members, filename, response);
+            exportToExcel(block, status, hasAccount, filename, response);
         } else {
-            exportToCsv(members, filename, response);
+            exportToCsv(block, status, hasAccount, filename, response);
         }
     }
 
-     // Export to CSV or Excel with filters
-    private void exportToCsv(List<Member> members, String filename, HttpServletResponse response) throws IOException {
+     // Export to CSV - streamed straight from the database to the response
+    private void exportToCsv(String block, String status, Boolean hasAccount, String filename,
+                             HttpServletResponse response) throws IOException {
         response.setContentType("text/csv");
         response.setHeader("Content-Disposition", "attachment; filename=" + filename);
         
-        PrintWriter writer = response.getWriter();
-        exportService.exportToCsv(members, writer);
-
+        exportService.exportToCsv(block, status, hasAccount, response.getWriter());
     }
 
-    // Export to Excel
-    private void exportToExcel(List<Member> members, String filename, HttpServletResponse response) throws IOException {
+    // Export to Excel - streamed workbook, constant memory
+    private void exportToExcel(String block, String status, Boolean hasAccount, String filename,
+                               HttpServletResponse response) throws IOException {
         response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
         response.setHeader("Content-Disposition", "attachment; filename=" + filename);
         
-        exportService.exportToExcel(members, response.getOutputStream());
+        exportService.exportToExcel(block, status, hasAccount, response.getOutputStream());
+    }
+
+    // Queue an export in the background - returns the job for progress polling
+    @PostMapping("/members/export/jobs")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> submitExportJob(
+            @RequestParam(required = false) String block,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Boolean hasAccount,
+            @RequestParam(defaultValue = "csv") String format) {
+        try {
+            return ResponseEntity.ok(exportJobResponse(exportJobService.submit(block, status, hasAccount, format)));
+        } catch (RuntimeException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(503).body(error);
+        }
+    }
+
+    // Export job progress and status
+    @GetMapping("/members/export/jobs/{id}")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getExportJob(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok(exportJobResponse(exportJobService.getJob(id)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Download a finished export - the file is streamed from the export store
+    @GetMapping("/members/export/jobs/{id}/download")
+    public ResponseEntity<Resource> downloadExportJob(@PathVariable String id) {
+        try {
+            ExportJobService.ExportJob job = exportJobService.getJob(id);
+            Resource artifact = new FileSystemResource(exportJobService.getArtifact(id));
+            MediaType contentType = "xlsx".equals(job.getFormat())
+                    ? MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")
+                    : MediaType.parseMediaType("text/csv; charset=UTF-8");
+            return ResponseEntity.ok()
+                    .contentType(contentType)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + job.getFilename())
+                    .body(artifact);
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    private Map<String, Object> exportJobResponse(ExportJobService.ExportJob job) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("id", job.getId());
+        response.put("status", job.getStatus());
+        response.put("percent", job.getPercent());
+        response.put("rowsWritten", job.getRowsWritten());
+        response.put("totalRows", job.getTotalRows());
+        response.put("filename", job.getFilename());
+        response.put("error", job.getError());
+        if (ExportJobService.COMPLETED.equals(job.getStatus())) {
+            response.put("downloadUrl", "/admin/members/export/jobs/" + job.getId() + "/download");
+        }
+        return response;
     }
 
      // Build descriptive filename for export
@@ -12,7 +12,6 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -28,16 +27,14 @@ public class AuthController {
 
     private final UserService userService;
     private final OtpService otpService;
-    private final PasswordEncoder passwordEncoder;
 
     @Value("${app.mfa.enabled:true}")
     private boolean mfaEnabled;
 
     @Autowired
-    public AuthController(UserService userService, OtpService otpService, PasswordEncoder passwordEncoder) {
+    public AuthController(UserService userService, OtpService otpService) {
         this.userService = userService;
         this.otpService = otpService;
-        this.passwordEncoder = passwordEncoder;
     }
 
     // Login page
@@ -55,47 +52,36 @@ public class AuthController {
                               RedirectAttributes redirectAttributes,
                               Model model) {
         
-        // Check if account is locked due to failed login attempts
-        if (userService.isAccountLocked(username)) {
+        // Throttle check, one lookup, then lock / enabled / password checks in memory
+        UserService.LoginResult result = userService.authenticate(username, password, request.getRemoteAddr());
+
+        if (UserService.LoginResult.THROTTLED.equals(result.getOutcome())) {
             redirectAttributes.addFlashAttribute("error", 
-                "Account temporarily locked due to multiple failed login attempts. Please try again in 15 minutes or contact an administrator.");
+                "Too many failed login attempts. Please try again in 15 minutes.");
             return "redirect:/login";
         }
 
-        // Validate username and password first
-        Optional<User> userOpt = userService.getUserByUsername(username);
-        
-        if (userOpt.isEmpty()) {
-            // Don't reveal if username exists - just record attempt
-            userService.recordFailedLoginAttempt(username);
-            redirectAttributes.addFlashAttribute("error", "Invalid username or password");
+        if (UserService.LoginResult.LOCKED.equals(result.getOutcome())) {
+            redirectAttributes.addFlashAttribute("error", 
+                "Account temporarily locked due to multiple failed login attempts. Please try again in 15 minutes or contact an administrator.");
             return "redirect:/login";
         }
 
-        User user = userOpt.get();
-
         // Check if account is locked by admin
-        if (!user.isEnabled()) {
+        if (UserService.LoginResult.DISABLED.equals(result.getOutcome())) {
             redirectAttributes.addFlashAttribute("error", "Your account has been locked. Please contact an administrator.");
             return "redirect:/login";
         }
 
-        // Check password
-        if (!passwordEncoder.matches(password, user.getPassword())) {
-            // Record failed login attempt
-            userService.recordFailedLoginAttempt(username);
-            
-            // Refresh user to get updated failed attempts count and lock status
-            user = userService.getUserByUsername(username).get();
-            
-            // Check if account just got locked
-            if (user.isAccountLocked()) {
-                redirectAttributes.addFlashAttribute("error", 
-                    "Account locked due to multiple failed login attempts. Please try again in 15 minutes or contact an administrator.");
-                return "redirect:/login";
-            }
-            
-            int remainingAttempts = 5 - user.getFailedLoginAttempts();
+        // Check if account just got locked
+        if (UserService.LoginResult.LOCKED_NOW.equals(result.getOutcome())) {
+            redirectAttributes.addFlashAttribute("error", 
+                "Account locked due to multiple failed login attempts. Please try again in 15 minutes or contact an administrator.");
+            return "redirect:/login";
+        }
+
+        if (!result.isSuccess()) {
+            int remainingAttempts = result.getRemainingAttempts();
             if (remainingAttempts > 0 && remainingAttempts <= 3) {
                 redirectAttributes.addFlashAttribute("error", 
                     "Invalid username or password. " + remainingAttempts + " attempts remaining before account lock.");
@@ -105,8 +91,7 @@ public class AuthController {
             return "redirect:/login";
         }
 
-        // Password correct - reset failed login attempts
-        userService.resetFailedLoginAttempts(username);
+        User user = result.getUser();
 
         // If MFA is disabled, login directly
         if (!mfaEnabled) {
@@ -1,14 +1,19 @@
 package com.willows.rta.controller;
 
+import com.willows.rta.model.ChatEvent;
 import com.willows.rta.model.ChatMessage;
+import com.willows.rta.service.ChatBroadcastService;
 import com.willows.rta.service.ChatService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -19,10 +24,12 @@ import java.util.Optional;
 public class ChatController {
 
     private final ChatService chatService;
+    private final ChatBroadcastService chatBroadcastService;
 
     @Autowired
-    public ChatController(ChatService chatService) {
+    public ChatController(ChatService chatService, ChatBroadcastService chatBroadcastService) {
         this.chatService = chatService;
+        this.chatBroadcastService = chatBroadcastService;
     }
 
     /**
@@ -37,33 +44,88 @@ public class ChatController {
                 .anyMatch(auth -> auth.getAuthority().equals("ROLE_ADMIN"));
         model.addAttribute("isAdmin", isAdmin);
         
+        // Cursor into the chat event log - the page asks for changes after this point
+        model.addAttribute("chatCursor", chatService.getCurrentCursor());
+        
         return "chat";
     }
 
     /**
-     * Get recent messages (initial load)
+     * Get message history (initial load and scroll-back)
+     * Without before: the newest messages. With before: the page of messages older than that ID.
      */
     @GetMapping("/messages")
     @ResponseBody
-    public ResponseEntity<List<ChatMessage>> getMessages() {
-        List<ChatMessage> messages = chatService.getRecentMessages();
+    public ResponseEntity<List<ChatMessage>> getMessages(@RequestParam(required = false) Long before,
+                                                         @RequestParam(defaultValue = "100") int limit) {
+        List<ChatMessage> messages = chatService.getMessagesBefore(before, limit);
         return ResponseEntity.ok(messages);
     }
 
     /**
-     * Get new messages after a specific ID (for polling)
-     * Also returns list of deleted/edited message IDs
+     * Live chat stream (Server-Sent Events)
+     * Resumes from the browser's Last-Event-ID on reconnect, or the cursor
+     * parameter on first connect, replaying any changes made since
      */
-    @GetMapping("/messages/new")
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     @ResponseBody
-    public ResponseEntity<Map<String, Object>> getNewMessages(@RequestParam(required = false) Long lastId) {
-        List<ChatMessage> newMessages = chatService.getNewMessages(lastId);
+    public SseEmitter streamMessages(@RequestParam(required = false) String cursor,
+                                     @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        String resumeFrom = cursor;
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            resumeFrom = lastEventId.trim();
+        }
         
-        // Return both new messages and change notifications
+        return chatBroadcastService.subscribe(resumeFrom);
+    }
+
+    /**
+     * Get chat changes after the client's cursor (for polling)
+     * Returns new, edited and deleted messages since the cursor plus the new cursor.
+     * If the cursor is too old to serve, or messages were purged in bulk since it,
+     * resync=true tells the client to reload.
+     * Clients without a cursor get new messages after lastId, as before.
+     */
+    @GetMapping("/messages/new")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getNewMessages(@RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false) Long lastId) {
         Map<String, Object> response = new HashMap<>();
+        List<ChatMessage> newMessages = new ArrayList<>();
+        List<ChatMessage> editedMessages = new ArrayList<>();
+        List<Long> deletedIds = new ArrayList<>();
+        
+        if (cursor == null) {
+            newMessages.addAll(chatService.getNewMessages(lastId));
+            response.put("cursor", chatService.getCurrentCursor());
+        } else if (!chatService.canResumeFrom(cursor)) {
+            response.put("resync", true);
+            response.put("cursor", chatService.getCurrentCursor());
+        } else {
+            String newCursor = cursor;
+            boolean resync = false;
+            for (ChatEvent event : chatService.getEventsAfter(cursor)) {
+                switch (event.getType()) {
+                    case ChatEvent.NEW -> newMessages.add(event.getMessage());
+                    case ChatEvent.EDIT -> editedMessages.add(event.getMessage());
+                    case ChatEvent.RESYNC -> resync = true;
+                    default -> deletedIds.add(event.getMessageId());
+                }
+                newCursor = chatService.toCursor(event);
+            }
+            if (resync) {
+                // The reload covers everything up to newCursor
+                newMessages.clear();
+                editedMessages.clear();
+                deletedIds.clear();
+                response.put("resync", true);
+            }
+            response.put("cursor", newCursor);
+        }
+        
         response.put("newMessages", newMessages);
-        response.put("deletedIds", chatService.getAndClearDeletedIds());
-        response.put("editedMessages", chatService.getAndClearEditedMessages());
+        response.put("editedMessages", editedMessages);
+        response.put("deletedIds", deletedIds);
         
         return ResponseEntity.ok(response);
     }
@@ -142,12 +204,9 @@ public class ChatController {
                 return ResponseEntity.status(403).body(response);
             }
             
-            // Delete the message
+            // Delete the message (other clients are notified through the chat event stream)
             chatService.deleteMessage(id);
             
-            // Notify other clients
-            chatService.notifyMessageDeleted(id);
-            
             response.put("success", true);
             response.put("messageId", id);
             return ResponseEntity.ok(response);
@@ -204,11 +263,8 @@ public class ChatController {
                 return ResponseEntity.status(403).body(response);
             }
             
-            // Update the message
-            ChatMessage updatedMessage = chatService.updateMessage(id, content.trim());
-            
-            // Notify other clients
-            chatService.notifyMessageEdited(updatedMessage);
+            // Update the message (other clients are notified through the chat event stream)
+            chatService.updateMessage(id, content.trim());
             
             response.put("success", true);
             response.put("messageId", id);
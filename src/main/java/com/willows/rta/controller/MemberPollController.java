@@ -8,6 +8,7 @@ import com.willows.rta.service.PollService;
 import com.willows.rta.service.UserService;
 import com.willows.rta.service.VotingService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -17,6 +18,7 @@ import org.springframework.beans.factory.annotation.Value;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 /**
  * Controller for member voting
@@ -60,14 +62,9 @@ public class MemberPollController {
         
         model.addAttribute("memberId", member.getId());
         
+        // Voted status for every poll comes from one query
         List<Poll> activePolls = pollService.getActivePolls();
-        model.addAttribute("polls", activePolls);
-        
-        // Check which polls the member has voted on
-        for (Poll poll : activePolls) {
-            boolean hasVoted = votingService.hasVoted(poll.getId(), member.getId());
-            poll.setAllowRevote(hasVoted); // Reusing this field to pass voted status to template
-        }
+        model.addAttribute("polls", votingService.getMemberPollViews(activePolls, member.getId()));
 
         model.addAttribute("pollsBeta", pollsBeta);
         
@@ -108,6 +105,7 @@ public class MemberPollController {
         
         model.addAttribute("poll", poll);
         model.addAttribute("hasVoted", hasVoted);
+        model.addAttribute("ballotToken", UUID.randomUUID().toString());
         
         return "polls/vote";
     }
@@ -118,6 +116,7 @@ public class MemberPollController {
     @PostMapping("/{id}/vote")
     public String submitVote(@PathVariable Long id,
                             @RequestParam(required = false) List<Long> optionIds,
+                            @RequestParam(required = false) String ballotToken,
                             Authentication authentication,
                             RedirectAttributes redirectAttributes) {
         try {
@@ -133,11 +132,15 @@ public class MemberPollController {
             }
             
             // Cast vote
-            votingService.castVote(id, optionIds, member.getId());
+            votingService.castVote(id, optionIds, member.getId(), ballotToken);
             
             redirectAttributes.addFlashAttribute("successMessage", "Your vote has been recorded. Thank you!");
             return "redirect:/polls/" + id + "/results";
             
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // Poll was closed or changed by an admin while this vote was being recorded
+            redirectAttributes.addFlashAttribute("errorMessage", "This poll changed while you were voting. Please check it is still open and try again.");
+            return "redirect:/polls/" + id + "/vote";
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("errorMessage", "Error casting vote: " + e.getMessage());
             return "redirect:/polls/" + id + "/vote";
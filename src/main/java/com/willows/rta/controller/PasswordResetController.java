@@ -1,10 +1,10 @@
 package com.willows.rta.controller;
 
 import com.willows.rta.model.User;
+import com.willows.rta.service.PasswordHashingService;
 import com.willows.rta.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -18,12 +18,12 @@ import java.util.Optional;
 public class PasswordResetController {
 
     private final UserService userService;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
 
     @Autowired
-    public PasswordResetController(UserService userService, PasswordEncoder passwordEncoder) {
+    public PasswordResetController(UserService userService, PasswordHashingService passwordHashingService) {
         this.userService = userService;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
     }
 
     // Show change password page
@@ -65,7 +65,7 @@ public class PasswordResetController {
         User user = userOpt.get();
 
         // Verify current password
-        if (!passwordEncoder.matches(currentPassword, user.getPassword())) {
+        if (!passwordHashingService.matches(currentPassword, user.getPassword())) {
             redirectAttributes.addFlashAttribute("error", "Current password is incorrect");
             return "redirect:/member/change-password";
         }
@@ -113,8 +113,6 @@ public class PublicController {
                     newUser.setMember(savedMember);
                     
                     // Update member record
-                    savedMember.setHasUserAccount(true);
-                    savedMember.setAccountCreationMethod("SELF_REGISTRATION");
                     memberService.updateMemberAccountStatus(savedMember.getId(), true, "SELF_REGISTRATION");
                     
                     redirectAttributes.addFlashAttribute("successMessage", 
@@ -0,0 +1,89 @@
+package com.willows.rta.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Ballot entity - one row per member per poll
+ * Inserted on the first vote and replaced on a revote; the ballot token lets a
+ * repeated submission of the same form be recognised and ignored
+ */
+@Entity
+@Table(name = "ballots", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"poll_id", "member_id"})
+})
+public class Ballot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "poll_id", nullable = false)
+    private Long pollId;
+
+    @Column(name = "member_id", nullable = false)
+    private Long memberId;
+
+    @Column(name = "ballot_token", nullable = false, length = 64)
+    private String ballotToken;
+
+    @Column(name = "submitted_at", nullable = false)
+    private LocalDateTime submittedAt;
+
+    @Column(nullable = false)
+    private int revision = 1; // Incremented on each accepted revote
+
+    // Constructors
+    public Ballot() {
+        this.submittedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getPollId() {
+        return pollId;
+    }
+
+    public void setPollId(Long pollId) {
+        this.pollId = pollId;
+    }
+
+    public Long getMemberId() {
+        return memberId;
+    }
+
+    public void setMemberId(Long memberId) {
+        this.memberId = memberId;
+    }
+
+    public String getBallotToken() {
+        return ballotToken;
+    }
+
+    public void setBallotToken(String ballotToken) {
+        this.ballotToken = ballotToken;
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public void setSubmittedAt(LocalDateTime submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+
+    public int getRevision() {
+        return revision;
+    }
+
+    public void setRevision(int revision) {
+        this.revision = revision;
+    }
+}
@@ -0,0 +1,42 @@
+package com.willows.rta.model;
+
+/**
+ * Data Transfer Object for a chat change (new, edited or deleted message, or a bulk purge)
+ * Events are numbered in order so each client can ask for "everything after N"
+ */
+public class ChatEvent {
+
+    public static final String NEW = "NEW";
+    public static final String EDIT = "EDIT";
+    public static final String DELETE = "DELETE";
+    public static final String RESYNC = "RESYNC"; // Many messages changed at once - clients reload
+
+    private long sequence;
+    private String type; // NEW, EDIT, DELETE, RESYNC
+    private Long messageId; // null for RESYNC
+    private ChatMessage message; // null for DELETE and RESYNC
+
+    public ChatEvent(long sequence, String type, Long messageId, ChatMessage message) {
+        this.sequence = sequence;
+        this.type = type;
+        this.messageId = messageId;
+        this.message = message;
+    }
+
+    // Getters
+    public long getSequence() {
+        return sequence;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Long getMessageId() {
+        return messageId;
+    }
+
+    public ChatMessage getMessage() {
+        return message;
+    }
+}
@@ -6,7 +6,12 @@ import jakarta.validation.constraints.NotBlank;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "members")
+@Table(name = "members", indexes = {
+    @Index(name = "idx_members_status_account", columnList = "membership_status, has_user_account"),
+    @Index(name = "idx_members_account", columnList = "has_user_account"),
+    @Index(name = "idx_members_flat_number", columnList = "flat_number"),
+    @Index(name = "idx_members_block_status", columnList = "block_id, membership_status")
+})
 public class Member {
 
     @Id
@@ -59,18 +64,10 @@ public class Member {
     @Column
     private String accountCreationMethod; // SELF_REGISTRATION or ADMIN_CREATED
 
-    // Transient fields for displaying user account status in admin views
-    @Transient
-    private Boolean userEnabled;
-    
-    @Transient
-    private Boolean userAccountLocked;
-    
-    @Transient
-    private Integer userFailedAttempts;
-
-    @Transient
-    private String userRole;
+    // Block this member lives in - derived from flat number / address by BlockService.matchBlock
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "block_id", foreignKey = @ForeignKey(name = "fk_members_block"))
+    private Block block;
 
     // Constructors
     public Member() {
@@ -192,35 +189,11 @@ public class Member {
         this.accountCreationMethod = accountCreationMethod;
     }
 
-    public Boolean getUserEnabled() {
-        return userEnabled;
-    }
-
-    public void setUserEnabled(Boolean userEnabled) {
-        this.userEnabled = userEnabled;
-    }
-
-    public Boolean getUserAccountLocked() {
-        return userAccountLocked;
-    }
-
-    public void setUserAccountLocked(Boolean userAccountLocked) {
-        this.userAccountLocked = userAccountLocked;
-    }
-
-    public Integer getUserFailedAttempts() {
-        return userFailedAttempts;
-    }
-
-    public void setUserFailedAttempts(Integer userFailedAttempts) {
-        this.userFailedAttempts = userFailedAttempts;
-    }
-
-    public String getUserRole() {
-        return userRole;
+    public Block getBlock() {
+        return block;
     }
 
-    public void setUserRole(String userRole) {
-        this.userRole = userRole;
+    public void setBlock(Block block) {
+        this.block = block;
     }
 }
@@ -0,0 +1,102 @@
+package com.willows.rta.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * Daily membership activity bucket - one row per day per block
+ * Incremented as members register, change status or get accounts, so growth
+ * charts read a handful of rows instead of scanning the members table.
+ * blockId is 0 for members not matched to a block.
+ */
+@Entity
+@Table(name = "membership_daily_stats", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_membership_daily_stats_day_block", columnNames = {"bucket_date", "block_id"})
+})
+public class MembershipDailyStats {
+
+    public static final long NO_BLOCK = 0L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "bucket_date", nullable = false)
+    private LocalDate bucketDate;
+
+    @Column(name = "block_id", nullable = false)
+    private Long blockId;
+
+    @Column(nullable = false)
+    private int registrations;
+
+    @Column(nullable = false)
+    private int activations;
+
+    @Column(nullable = false)
+    private int suspensions;
+
+    @Column(name = "accounts_created", nullable = false)
+    private int accountsCreated;
+
+    // Constructors
+    public MembershipDailyStats() {
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDate getBucketDate() {
+        return bucketDate;
+    }
+
+    public void setBucketDate(LocalDate bucketDate) {
+        this.bucketDate = bucketDate;
+    }
+
+    public Long getBlockId() {
+        return blockId;
+    }
+
+    public void setBlockId(Long blockId) {
+        this.blockId = blockId;
+    }
+
+    public int getRegistrations() {
+        return registrations;
+    }
+
+    public void setRegistrations(int registrations) {
+        this.registrations = registrations;
+    }
+
+    public int getActivations() {
+        return activations;
+    }
+
+    public void setActivations(int activations) {
+        this.activations = activations;
+    }
+
+    public int getSuspensions() {
+        return suspensions;
+    }
+
+    public void setSuspensions(int suspensions) {
+        this.suspensions = suspensions;
+    }
+
+    public int getAccountsCreated() {
+        return accountsCreated;
+    }
+
+    public void setAccountsCreated(int accountsCreated) {
+        this.accountsCreated = accountsCreated;
+    }
+}
@@ -26,6 +26,10 @@ public class OtpCode {
     @Column(nullable = false)
     private LocalDateTime createdAt;
 
+    // Wrong codes entered against this OTP
+    @Column(nullable = false, columnDefinition = "integer default 0")
+    private int failedAttempts = 0;
+
     public OtpCode() {
         this.createdAt = LocalDateTime.now();
     }
@@ -86,6 +90,14 @@ public class OtpCode {
         this.createdAt = createdAt;
     }
 
+    public int getFailedAttempts() {
+        return failedAttempts;
+    }
+
+    public void setFailedAttempts(int failedAttempts) {
+        this.failedAttempts = failedAttempts;
+    }
+
     public boolean isExpired() {
         return LocalDateTime.now().isAfter(expiryTime);
     }
@@ -1,6 +1,7 @@
 package com.willows.rta.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Formula;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -52,6 +53,11 @@ public class Poll {
     @Column(name = "allow_revote")
     private Boolean allowRevote = false;
 
+    // Optimistic lock - bumped whenever the poll itself changes (publish, close, reopen)
+    @Version
+    @Column(columnDefinition = "bigint default 0")
+    private Long version;
+
     @OneToMany(mappedBy = "poll", cascade = CascadeType.ALL, orphanRemoval = true)
     @OrderBy("displayOrder ASC")
     private List<PollOption> options = new ArrayList<>();
@@ -59,6 +65,13 @@ public class Poll {
     @OneToMany(mappedBy = "poll", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Vote> votes = new ArrayList<>();
 
+    // Counts computed in the poll's own SELECT, so listings never load the collections
+    @Formula("(SELECT COUNT(*) FROM votes v WHERE v.poll_id = id)")
+    private int totalVotes;
+
+    @Formula("(SELECT COUNT(*) FROM poll_options o WHERE o.poll_id = id)")
+    private int optionCount;
+
     // Constructors
     public Poll() {
         this.createdAt = LocalDateTime.now();
@@ -177,6 +190,14 @@ public class Poll {
         this.allowRevote = allowRevote;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public List<PollOption> getOptions() {
         return options;
     }
@@ -241,7 +262,11 @@ public class Poll {
     }
 
     public int getTotalVotes() {
-        return votes.size();
+        return totalVotes;
+    }
+
+    public int getOptionCount() {
+        return optionCount;
     }
 
     public void addOption(PollOption option) {
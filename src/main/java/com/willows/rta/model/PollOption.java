@@ -1,6 +1,7 @@
 package com.willows.rta.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Formula;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -32,6 +33,10 @@ public class PollOption {
     @OneToMany(mappedBy = "option", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Vote> votes = new ArrayList<>();
 
+    // Computed in the option's own SELECT instead of loading every Vote
+    @Formula("(SELECT COUNT(*) FROM votes v WHERE v.option_id = id)")
+    private int voteCount;
+
     // Constructors
     public PollOption() {
         this.createdAt = LocalDateTime.now();
@@ -94,7 +99,7 @@ public class PollOption {
 
     // Helper methods
     public int getVoteCount() {
-        return votes.size();
+        return voteCount;
     }
 
     public double getPercentage(int totalVotes) {
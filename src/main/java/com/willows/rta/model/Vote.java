@@ -9,11 +9,16 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "votes", uniqueConstraints = {
     @UniqueConstraint(columnNames = {"poll_id", "member_id", "option_id"})
+}, indexes = {
+    @Index(name = "idx_votes_option_id", columnList = "option_id")
 })
 public class Vote {
 
+    // Sequence ids (pooled, 50 at a time) so Hibernate can batch vote inserts;
+    // IDENTITY would force one round-trip per row. See migrate_votes_sequence.sql
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "votes_seq")
+    @SequenceGenerator(name = "votes_seq", sequenceName = "votes_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
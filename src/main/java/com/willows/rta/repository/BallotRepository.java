@@ -0,0 +1,58 @@
+package com.willows.rta.repository;
+
+import com.willows.rta.model.Ballot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface BallotRepository extends JpaRepository<Ballot, Long> {
+    
+    /**
+     * Insert the member's first ballot for a poll.
+     * Returns 1 if inserted, 0 if the member already has a ballot - never a duplicate key
+     * error, and never a lock on the existing ballot row.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO ballots (poll_id, member_id, ballot_token, submitted_at, revision) " +
+                   "VALUES (:pollId, :memberId, :ballotToken, :submittedAt, 1) " +
+                   "ON CONFLICT (poll_id, member_id) DO NOTHING",
+           nativeQuery = true)
+    int insertBallot(@Param("pollId") Long pollId,
+                     @Param("memberId") Long memberId,
+                     @Param("ballotToken") String ballotToken,
+                     @Param("submittedAt") LocalDateTime submittedAt);
+    
+    /**
+     * Replace the member's ballot with a new submission (revote).
+     * Returns 0 if the ballot already carries this token (same form resubmitted).
+     * Locks the ballot row, so one member's concurrent revotes run one after another.
+     */
+    @Modifying
+    @Query(value = "UPDATE ballots SET ballot_token = :ballotToken, submitted_at = :submittedAt, " +
+                   "revision = revision + 1 " +
+                   "WHERE poll_id = :pollId AND member_id = :memberId AND ballot_token <> :ballotToken",
+           nativeQuery = true)
+    int replaceBallot(@Param("pollId") Long pollId,
+                      @Param("memberId") Long memberId,
+                      @Param("ballotToken") String ballotToken,
+                      @Param("submittedAt") LocalDateTime submittedAt);
+    
+    // Find a member's ballot for a poll
+    Optional<Ballot> findByPollIdAndMemberId(Long pollId, Long memberId);
+    
+    // Delete all ballots for a poll
+    @Modifying
+    @Query("DELETE FROM Ballot b WHERE b.pollId = :pollId")
+    int deleteAllByPollId(@Param("pollId") Long pollId);
+    
+    // Delete all ballots by a member
+    @Modifying
+    @Query("DELETE FROM Ballot b WHERE b.memberId = :memberId")
+    int deleteAllByMemberId(@Param("memberId") Long memberId);
+}
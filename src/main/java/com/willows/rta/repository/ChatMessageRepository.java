@@ -1,18 +1,42 @@
 package com.willows.rta.repository;
 
 import com.willows.rta.model.ChatMessage;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
     
-    // Get last 100 messages ordered by time (newest first for display)
-    @Query("SELECT c FROM ChatMessage c ORDER BY c.sentAt DESC")
-    List<ChatMessage> findLast100Messages();
+    // Get the newest messages, newest first (page size becomes the SQL LIMIT)
+    @Query("SELECT c FROM ChatMessage c ORDER BY c.sentAt DESC, c.id DESC")
+    List<ChatMessage> findLatest(Pageable pageable);
+    
+    // Keyset page: messages older than the given (sentAt, id), newest first
+    // Served by the (sent_at, id) index, so the cost doesn't grow with history size
+    @Query("SELECT c FROM ChatMessage c WHERE c.sentAt < :sentAt OR (c.sentAt = :sentAt AND c.id < :id) " +
+           "ORDER BY c.sentAt DESC, c.id DESC")
+    List<ChatMessage> findOlderThan(@Param("sentAt") LocalDateTime sentAt, @Param("id") Long id, Pageable pageable);
+    
+    // Fallback keyset page when the cursor message no longer exists
+    @Query("SELECT c FROM ChatMessage c WHERE c.id < :id ORDER BY c.sentAt DESC, c.id DESC")
+    List<ChatMessage> findOlderThanId(@Param("id") Long id, Pageable pageable);
     
     // Get messages after a specific ID (for polling updates)
     @Query("SELECT c FROM ChatMessage c WHERE c.id > ?1 ORDER BY c.sentAt ASC")
     List<ChatMessage> findMessagesAfterId(Long lastId);
+    
+    // Delete everything older than the given (sentAt, id) in one statement
+    @Modifying
+    @Query("DELETE FROM ChatMessage c WHERE c.sentAt < :sentAt OR (c.sentAt = :sentAt AND c.id < :id)")
+    int deleteOlderThan(@Param("sentAt") LocalDateTime sentAt, @Param("id") Long id);
+    
+    // Delete messages sent before a cutoff (age-based retention)
+    @Modifying
+    @Query("DELETE FROM ChatMessage c WHERE c.sentAt < :cutoff")
+    int deleteSentBefore(@Param("cutoff") LocalDateTime cutoff);
 }
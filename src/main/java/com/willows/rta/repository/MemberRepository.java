@@ -1,18 +1,25 @@
 package com.willows.rta.repository;
 
 import com.willows.rta.model.Member;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface MemberRepository extends JpaRepository<Member, Long> {
+public interface MemberRepository extends JpaRepository<Member, Long>, JpaSpecificationExecutor<Member> {
     
     Optional<Member> findByEmail(String email);
     
@@ -27,16 +34,129 @@ public interface MemberRepository extends JpaRepository<Member, Long> {
 
     long countByMembershipStatus(String status);
 
+    long countByHasUserAccountFalse();
+
+    // Members page with each member's login status in the same statement (left join on users.member_id)
+    @Query(value = "SELECT m AS member, u.enabled AS userEnabled, u.accountLockedUntil AS userLockedUntil, " +
+                   "u.role AS userRole " +
+                   "FROM Member m LEFT JOIN User u ON u.member = m",
+           countQuery = "SELECT COUNT(m) FROM Member m")
+    Page<MemberWithAccount> findAllWithAccount(Pageable pageable);
+
+    // Members per block for one status - a single aggregate over idx_members_block_status
+    @Query("SELECT m.block.id AS blockId, COUNT(m) AS memberCount FROM Member m " +
+           "WHERE m.membershipStatus = :status AND m.block IS NOT NULL GROUP BY m.block.id")
+    List<BlockMemberCount> countByBlock(@Param("status") String membershipStatus);
+
+    long countByBlockIsNull();
+
+    // Keyset batch of (id, registration date, block) for the membership time-series backfill
+    @Query("SELECT m.id AS id, m.registrationDate AS registrationDate, b.id AS blockId " +
+           "FROM Member m LEFT JOIN m.block b WHERE m.id > :afterId ORDER BY m.id")
+    List<MemberRegistration> findRegistrationsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Export rows for the given filters (null = any), in id order
+     * Read through a cursor in fetches of 500 - the stream must be consumed inside a transaction and closed.
+     * block is the lower-cased block short name, matched as in MemberSpecifications.inBlock
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT m.id AS id, m.fullName AS fullName, m.flatNumber AS flatNumber, m.address AS address, " +
+           "m.email AS email, m.phoneNumber AS phoneNumber, m.membershipStatus AS membershipStatus, " +
+           "m.hasUserAccount AS hasUserAccount, m.isLeaseholder AS leaseholder, m.registrationDate AS registrationDate " +
+           "FROM Member m LEFT JOIN m.block b " +
+           "WHERE (:status IS NULL OR m.membershipStatus = :status) " +
+           "AND (:hasAccount IS NULL OR m.hasUserAccount = :hasAccount) " +
+           "AND (:block IS NULL OR LOWER(b.shortName) = :block) " +
+           "ORDER BY m.id")
+    Stream<MemberExportRow> streamForExport(@Param("block") String block,
+                                            @Param("status") String status,
+                                            @Param("hasAccount") Boolean hasAccount);
+
+    // Row count for the same filters - the total shown on export job progress
+    @Query("SELECT COUNT(m) FROM Member m LEFT JOIN m.block b " +
+           "WHERE (:status IS NULL OR m.membershipStatus = :status) " +
+           "AND (:hasAccount IS NULL OR m.hasUserAccount = :hasAccount) " +
+           "AND (:block IS NULL OR LOWER(b.shortName) = :block)")
+    long countForExport(@Param("block") String block,
+                        @Param("status") String status,
+                        @Param("hasAccount") Boolean hasAccount);
+
+    // Detach members from a block that is about to be deleted
+    @Modifying
+    @Query("UPDATE Member m SET m.block = null WHERE m.block.id = :blockId")
+    int clearBlock(@Param("blockId") Long blockId);
+
     /**
-     * Count active members by checking if EITHER flat_number OR address contains the block name
-     * Uses DISTINCT to avoid double-counting if both fields match
-     * Uses LIKE with wildcards for partial matching (e.g., "Windings" matches "Windings House")
+     * Re-derive every member's block in one statement
+     * Same rule as BlockService.matchBlock: the longest active block short name found
+     * in the flat number or address wins (ties go to the lowest block id)
      */
-    @Query("SELECT COUNT(DISTINCT m) FROM Member m WHERE m.membershipStatus = :status " +
-        "AND (LOWER(m.flatNumber) LIKE LOWER(CONCAT('%', :blockName, '%')) " +
-        "OR LOWER(m.address) LIKE LOWER(CONCAT('%', :blockName, '%')))")
-    int countActiveByBlockName(
-        @Param("status") String membershipStatus,
-        @Param("blockName") String blockName
-    );
+    @Modifying
+    @Query(value = "UPDATE members m SET block_id = (" +
+                   "SELECT b.id FROM blocks b WHERE b.active = TRUE " +
+                   "AND (LOWER(m.flat_number) LIKE '%' || LOWER(b.short_name) || '%' " +
+                   "OR LOWER(m.address) LIKE '%' || LOWER(b.short_name) || '%') " +
+                   "ORDER BY LENGTH(b.short_name) DESC, b.id LIMIT 1)",
+           nativeQuery = true)
+    int reassignBlocks();
+
+    /**
+     * Give a block to members that have none and now match one (same rule as reassignBlocks)
+     * Only touches rows with no block, so members matching no block cost nothing after the first run
+     */
+    @Modifying
+    @Query(value = "UPDATE members m SET block_id = (" +
+                   "SELECT b.id FROM blocks b WHERE b.active = TRUE " +
+                   "AND (LOWER(m.flat_number) LIKE '%' || LOWER(b.short_name) || '%' " +
+                   "OR LOWER(m.address) LIKE '%' || LOWER(b.short_name) || '%') " +
+                   "ORDER BY LENGTH(b.short_name) DESC, b.id LIMIT 1) " +
+                   "WHERE m.block_id IS NULL AND EXISTS (" +
+                   "SELECT 1 FROM blocks b WHERE b.active = TRUE " +
+                   "AND (LOWER(m.flat_number) LIKE '%' || LOWER(b.short_name) || '%' " +
+                   "OR LOWER(m.address) LIKE '%' || LOWER(b.short_name) || '%'))",
+           nativeQuery = true)
+    int assignMissingBlocks();
+
+    interface MemberExportRow {
+        Long getId();
+        String getFullName();
+        String getFlatNumber();
+        String getAddress();
+        String getEmail();
+        String getPhoneNumber();
+        String getMembershipStatus();
+        boolean getHasUserAccount();
+        boolean getLeaseholder();
+        LocalDateTime getRegistrationDate();
+    }
+
+    interface MemberRegistration {
+        Long getId();
+        LocalDateTime getRegistrationDate();
+        Long getBlockId();
+    }
+
+    interface BlockMemberCount {
+        Long getBlockId();
+        long getMemberCount();
+    }
+
+    /**
+     * A member row joined to its login account (user fields are null when there is no account)
+     */
+    interface MemberWithAccount {
+        Member getMember();
+        Boolean getUserEnabled();
+        LocalDateTime getUserLockedUntil();
+        String getUserRole();
+
+        default Boolean getUserAccountLocked() {
+            LocalDateTime lockedUntil = getUserLockedUntil();
+            return lockedUntil != null && LocalDateTime.now().isBefore(lockedUntil);
+        }
+    }
 }
@@ -0,0 +1,68 @@
+package com.willows.rta.repository;
+
+import com.willows.rta.model.Member;
+import jakarta.persistence.criteria.JoinType;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Query building blocks for filtering members in the database
+ * Each filter is skipped (null) when its value is empty, so callers can
+ * combine them freely: Specification.where(hasStatus(s)).and(hasAccount(a))...
+ */
+public final class MemberSpecifications {
+
+    private MemberSpecifications() {
+    }
+
+    /**
+     * Membership status equals (uses idx_members_status_account)
+     */
+    public static Specification<Member> hasStatus(String status) {
+        if (status == null || status.isEmpty()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("membershipStatus"), status);
+    }
+
+    /**
+     * Has (or has not) a login account
+     */
+    public static Specification<Member> hasAccount(Boolean hasAccount) {
+        if (hasAccount == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("hasUserAccount"), hasAccount);
+    }
+
+    /**
+     * Member belongs to the block with this short name (via block_id)
+     */
+    public static Specification<Member> inBlock(String blockShortName) {
+        if (blockShortName == null || blockShortName.isEmpty()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(
+                cb.lower(root.join("block", JoinType.INNER).get("shortName")), blockShortName.toLowerCase());
+    }
+
+    /**
+     * Free-text search over name, email and flat number
+     * A flat number typed exactly matches via idx_members_flat_number
+     */
+    public static Specification<Member> matchesText(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        String trimmed = text.trim();
+        String pattern = "%" + escapeLike(trimmed.toLowerCase()) + "%";
+        return (root, query, cb) -> cb.or(
+                cb.equal(root.get("flatNumber"), trimmed),
+                cb.like(cb.lower(root.get("fullName")), pattern, '\\'),
+                cb.like(cb.lower(root.get("email")), pattern, '\\'),
+                cb.like(cb.lower(root.get("flatNumber")), pattern, '\\'));
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
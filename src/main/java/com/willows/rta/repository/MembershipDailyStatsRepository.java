@@ -0,0 +1,73 @@
+package com.willows.rta.repository;
+
+import com.willows.rta.model.MembershipDailyStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface MembershipDailyStatsRepository extends JpaRepository<MembershipDailyStats, Long> {
+    
+    /**
+     * Add to a day's counters for a block, creating the bucket on first use
+     * Concurrent updates to the same bucket queue on its row instead of racing
+     */
+    @Modifying
+    @Query(value = "INSERT INTO membership_daily_stats " +
+                   "(bucket_date, block_id, registrations, activations, suspensions, accounts_created) " +
+                   "VALUES (:day, :blockId, :registrations, :activations, :suspensions, :accountsCreated) " +
+                   "ON CONFLICT (bucket_date, block_id) DO UPDATE SET " +
+                   "registrations = membership_daily_stats.registrations + EXCLUDED.registrations, " +
+                   "activations = membership_daily_stats.activations + EXCLUDED.activations, " +
+                   "suspensions = membership_daily_stats.suspensions + EXCLUDED.suspensions, " +
+                   "accounts_created = membership_daily_stats.accounts_created + EXCLUDED.accounts_created",
+           nativeQuery = true)
+    int addToBucket(@Param("day") LocalDate day,
+                    @Param("blockId") Long blockId,
+                    @Param("registrations") int registrations,
+                    @Param("activations") int activations,
+                    @Param("suspensions") int suspensions,
+                    @Param("accountsCreated") int accountsCreated);
+    
+    /**
+     * Set a day's registration count for a block (backfill - safe to re-run)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO membership_daily_stats " +
+                   "(bucket_date, block_id, registrations, activations, suspensions, accounts_created) " +
+                   "VALUES (:day, :blockId, :registrations, 0, 0, 0) " +
+                   "ON CONFLICT (bucket_date, block_id) DO UPDATE SET registrations = EXCLUDED.registrations",
+           nativeQuery = true)
+    int setRegistrations(@Param("day") LocalDate day,
+                         @Param("blockId") Long blockId,
+                         @Param("registrations") int registrations);
+    
+    // Daily totals across all blocks for a date range (chart data)
+    @Query("SELECT s.bucketDate AS day, SUM(s.registrations) AS registrations, SUM(s.activations) AS activations, " +
+           "SUM(s.suspensions) AS suspensions, SUM(s.accountsCreated) AS accountsCreated " +
+           "FROM MembershipDailyStats s WHERE s.bucketDate BETWEEN :from AND :to " +
+           "GROUP BY s.bucketDate ORDER BY s.bucketDate")
+    List<DailyTotals> findDailyTotals(@Param("from") LocalDate from, @Param("to") LocalDate to);
+    
+    // Daily totals for one block for a date range (chart data)
+    @Query("SELECT s.bucketDate AS day, SUM(s.registrations) AS registrations, SUM(s.activations) AS activations, " +
+           "SUM(s.suspensions) AS suspensions, SUM(s.accountsCreated) AS accountsCreated " +
+           "FROM MembershipDailyStats s WHERE s.blockId = :blockId AND s.bucketDate BETWEEN :from AND :to " +
+           "GROUP BY s.bucketDate ORDER BY s.bucketDate")
+    List<DailyTotals> findDailyTotalsForBlock(@Param("blockId") Long blockId,
+                                              @Param("from") LocalDate from,
+                                              @Param("to") LocalDate to);
+    
+    interface DailyTotals {
+        LocalDate getDay();
+        long getRegistrations();
+        long getActivations();
+        long getSuspensions();
+        long getAccountsCreated();
+    }
+}
@@ -2,6 +2,9 @@ package com.willows.rta.repository;
 
 import com.willows.rta.model.OtpCode;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -16,4 +19,26 @@ public interface OtpRepository extends JpaRepository<OtpCode, Long> {
     List<OtpCode> findByUsernameAndUsedFalse(String username);
     
     void deleteByExpiryTimeBefore(LocalDateTime dateTime);
+    
+    // Mark every unused code for a user as used in one statement
+    @Modifying
+    @Query("UPDATE OtpCode o SET o.used = true WHERE o.username = :username AND o.used = false")
+    int markAllUsedByUsername(@Param("username") String username);
+    
+    // Purge codes that can never be used again (expired, or already used)
+    @Modifying
+    @Query("DELETE FROM OtpCode o WHERE o.expiryTime < :now OR o.used = true")
+    int deleteExpiredOrUsed(@Param("now") LocalDateTime now);
+
+    // Consume a code - no-op if it was already used (concurrent verify)
+    @Modifying
+    @Query("UPDATE OtpCode o SET o.used = true WHERE o.id = :id AND o.used = false")
+    int markUsed(@Param("id") Long id);
+
+    // Count a wrong code; the code is spent once maxAttempts is reached
+    @Modifying
+    @Query("UPDATE OtpCode o SET o.failedAttempts = o.failedAttempts + 1, " +
+           "o.used = CASE WHEN o.failedAttempts + 1 >= :maxAttempts THEN true ELSE o.used END " +
+           "WHERE o.id = :id")
+    int recordFailedAttempt(@Param("id") Long id, @Param("maxAttempts") int maxAttempts);
 }
@@ -5,6 +5,7 @@ import com.willows.rta.model.PollOption;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -13,6 +14,9 @@ public interface PollOptionRepository extends JpaRepository<PollOption, Long> {
     // Find options for a specific poll
     List<PollOption> findByPollIdOrderByDisplayOrder(Long pollId);
     
+    // Find the given options, only if they belong to the poll (validates a ballot in one query)
+    List<PollOption> findByPollIdAndIdIn(Long pollId, Collection<Long> ids);
+    
     // Delete all options for a poll
     void deleteByPollId(Long pollId);
 }
\ No newline at end of file
@@ -7,12 +7,17 @@
 package com.willows.rta.repository;
 
 import com.willows.rta.model.Poll;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PollRepository extends JpaRepository<Poll, Long> {
@@ -33,6 +38,32 @@ public interface PollRepository extends JpaRepository<Poll, Long> {
     @Query("SELECT p FROM Poll p WHERE p.status = 'ACTIVE' AND p.closeAt <= :now")
     List<Poll> findExpiredActivePolls(LocalDateTime now);
     
+    // Ids of polls whose deadline has passed but are still ACTIVE
+    @Query("SELECT p.id FROM Poll p WHERE p.status = 'ACTIVE' AND p.closeAt <= :now")
+    List<Long> findExpiredActivePollIds(@Param("now") LocalDateTime now);
+    
+    // Close the given polls in one statement - bumps the version so in-flight votes fail their optimistic check
+    @Modifying
+    @Query("UPDATE Poll p SET p.status = 'CLOSED', p.closedManually = false, p.version = p.version + 1 " +
+           "WHERE p.id IN :ids AND p.status = 'ACTIVE'")
+    int closeActivePolls(@Param("ids") List<Long> ids);
+    
+    // Close one poll if it is still ACTIVE and its deadline has passed (deadline timer firing)
+    @Modifying
+    @Query("UPDATE Poll p SET p.status = 'CLOSED', p.closedManually = false, p.version = p.version + 1 " +
+           "WHERE p.id = :id AND p.status = 'ACTIVE' AND p.closeAt <= :now")
+    int closeIfDeadlinePassed(@Param("id") Long id, @Param("now") LocalDateTime now);
+    
+    // Active polls that have a deadline (timers are registered for these at startup)
+    @Query("SELECT p FROM Poll p WHERE p.status = 'ACTIVE' AND p.closeAt IS NOT NULL")
+    List<Poll> findActivePollsWithDeadline();
+    
+    // Load a poll for voting - its version is re-checked at commit without taking a row lock,
+    // so a vote fails cleanly if the poll was closed meanwhile but voters never block each other
+    @Lock(LockModeType.OPTIMISTIC)
+    @Query("SELECT p FROM Poll p WHERE p.id = :id")
+    Optional<Poll> findForVotingById(Long id);
+    
     // Count active polls
     long countByStatus(String status);
 }
\ No newline at end of file
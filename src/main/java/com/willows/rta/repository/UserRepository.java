@@ -2,8 +2,13 @@ package com.willows.rta.repository;
 
 import com.willows.rta.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +17,33 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     
     boolean existsByUsername(String username);
+
+    // Login lookup - the user and its member in one statement
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.member WHERE u.username = :username")
+    Optional<User> findForLogin(@Param("username") String username);
+
+    // Successful login - clears the failure count; no-op if the account was locked meanwhile
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.failedLoginAttempts = 0, u.accountLockedUntil = null, u.lastLogin = :now " +
+           "WHERE u.id = :id AND (u.accountLockedUntil IS NULL OR u.accountLockedUntil <= :now)")
+    int recordLoginSuccess(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // Lockout threshold crossed - no-op if the account is already locked
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.failedLoginAttempts = :attempts, u.accountLockedUntil = :lockUntil " +
+           "WHERE u.id = :id AND (u.accountLockedUntil IS NULL OR u.accountLockedUntil <= :now)")
+    int lockAccount(@Param("id") Long id,
+                    @Param("attempts") int attempts,
+                    @Param("now") LocalDateTime now,
+                    @Param("lockUntil") LocalDateTime lockUntil);
+
+    // Replace a password hash (rehash on login) - no-op if the password was changed meanwhile
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :newHash WHERE u.id = :id AND u.password = :oldHash")
+    int updatePasswordHash(@Param("id") Long id,
+                           @Param("oldHash") String oldHash,
+                           @Param("newHash") String newHash);
 }
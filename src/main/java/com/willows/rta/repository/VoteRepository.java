@@ -3,9 +3,12 @@ package com.willows.rta.repository;
 
 import com.willows.rta.model.Vote;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,6 +27,10 @@ public interface VoteRepository extends JpaRepository<Vote, Long> {
     // Check if member has voted on a poll
     boolean existsByPollIdAndMemberId(Long pollId, Long memberId);
     
+    // Which of the given polls has a member voted on (one query for a whole poll list)
+    @Query("SELECT DISTINCT v.poll.id FROM Vote v WHERE v.member.id = :memberId AND v.poll.id IN :pollIds")
+    List<Long> findVotedPollIds(@Param("memberId") Long memberId, @Param("pollIds") Collection<Long> pollIds);
+    
     // Get member's vote for a poll (for single choice)
     Optional<Vote> findByPollIdAndMemberId(Long pollId, Long memberId);
     
@@ -36,9 +43,48 @@ public interface VoteRepository extends JpaRepository<Vote, Long> {
     // Count votes for an option
     long countByOptionId(Long optionId);
     
+    // Vote counts for every option of a poll in one grouped query (for results)
+    @Query("SELECT v.option.id AS optionId, COUNT(v) AS voteCount FROM Vote v " +
+           "WHERE v.poll.id = :pollId GROUP BY v.option.id")
+    List<OptionVoteCount> countVotesByOption(@Param("pollId") Long pollId);
+    
+    // Count distinct members who voted on a poll
+    @Query("SELECT COUNT(DISTINCT v.member.id) FROM Vote v WHERE v.poll.id = :pollId")
+    long countDistinctVotersByPollId(@Param("pollId") Long pollId);
+    
+    // Option ids a member currently has votes on (for revoting)
+    @Query("SELECT v.option.id FROM Vote v WHERE v.poll.id = :pollId AND v.member.id = :memberId")
+    List<Long> findOptionIdsByPollIdAndMemberId(@Param("pollId") Long pollId, @Param("memberId") Long memberId);
+    
+    // Voter names for every option of a poll in one query (for open poll results)
+    @Query("SELECT v.option.id AS optionId, m.fullName AS voterName FROM Vote v JOIN v.member m " +
+           "WHERE v.poll.id = :pollId ORDER BY v.id")
+    List<OptionVoter> findVoterNamesByPollId(@Param("pollId") Long pollId);
+    
     // Delete all votes for a poll
     void deleteByPollId(Long pollId);
     
     // Delete member's votes from a poll (for revoting)
     void deleteByPollIdAndMemberId(Long pollId, Long memberId);
+    
+    // Delete member's votes from a poll in a single statement (for revoting)
+    @Modifying
+    @Query("DELETE FROM Vote v WHERE v.poll.id = :pollId AND v.member.id = :memberId")
+    int deleteAllByPollIdAndMemberId(@Param("pollId") Long pollId, @Param("memberId") Long memberId);
+    
+    /**
+     * Projection for per-option vote counts
+     */
+    interface OptionVoteCount {
+        Long getOptionId();
+        long getVoteCount();
+    }
+    
+    /**
+     * Projection for a voter's name against the option they chose
+     */
+    interface OptionVoter {
+        Long getOptionId();
+        String getVoterName();
+    }
 }
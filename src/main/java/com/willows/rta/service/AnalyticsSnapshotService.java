@@ -0,0 +1,230 @@
+package com.willows.rta.service;
+
+import com.willows.rta.model.Block;
+import com.willows.rta.model.BlockStats;
+import com.willows.rta.repository.BlockRepository;
+import com.willows.rta.repository.MemberRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory snapshot of the block analytics (per-block active members and overall coverage)
+ * The analytics page reads the snapshot; member changes adjust the counts incrementally,
+ * block edits trigger a rebuild, and a periodic full rebuild corrects any drift.
+ * A rebuild queries without holding the lock and is thrown away if a member change was
+ * in flight meanwhile - its counts may already include a change whose delta is still to come.
+ */
+@Service
+public class AnalyticsSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsSnapshotService.class);
+
+    private static final String ACTIVE = "ACTIVE";
+
+    private final BlockRepository blockRepository;
+    private final MemberRepository memberRepository;
+
+    private static final int MAX_REBUILD_ATTEMPTS = 3;
+
+    // Guarded by "this"; snapshot is swapped atomically for readers
+    private List<Block> activeBlocks = Collections.emptyList();
+    private final Map<Long, Long> activeMembersByBlock = new HashMap<>();
+    private volatile Snapshot snapshot;
+
+    // Member changes reported but not yet committed and applied
+    private final AtomicInteger changesInFlight = new AtomicInteger();
+    // Bumped on every applied delta so a rebuild that raced with one is not installed
+    private final AtomicLong generation = new AtomicLong();
+    // Rebuilds are numbered so an older one never replaces a newer one (guarded by "this")
+    private final AtomicLong rebuildSequence = new AtomicLong();
+    private long installedRebuild = 0;
+
+    @Autowired
+    public AnalyticsSnapshotService(BlockRepository blockRepository, MemberRepository memberRepository) {
+        this.blockRepository = blockRepository;
+        this.memberRepository = memberRepository;
+    }
+
+    /**
+     * Per-block stats for the active blocks
+     */
+    public List<BlockStats> getBlockStats() {
+        return current().getBlockStats();
+    }
+
+    /**
+     * Overall stats across the active blocks
+     */
+    public BlockService.OverallStats getOverallStats() {
+        return current().getOverallStats();
+    }
+
+    /**
+     * When the current snapshot was published
+     */
+    public LocalDateTime getBuiltAt() {
+        return current().getBuiltAt();
+    }
+
+    /**
+     * Apply a member change once the surrounding transaction commits
+     * Call inside the transaction that makes the change, so the change is known to be in
+     * flight before it commits. Pass nulls for the "before" side of a registration and the
+     * "after" side of a delete
+     */
+    public void memberChanged(Long oldBlockId, String oldStatus, Long newBlockId, String newStatus) {
+        boolean wasCounted = oldBlockId != null && ACTIVE.equals(oldStatus);
+        boolean isCounted = newBlockId != null && ACTIVE.equals(newStatus);
+        if (wasCounted == isCounted && (!wasCounted || Objects.equals(oldBlockId, newBlockId))) {
+            return; // No effect on the stats
+        }
+
+        Runnable delta = () -> {
+            synchronized (this) {
+                generation.incrementAndGet();
+                if (snapshot == null) {
+                    return; // Built from the database on first read
+                }
+                if (wasCounted) {
+                    activeMembersByBlock.merge(oldBlockId, -1L, Long::sum);
+                }
+                if (isCounted) {
+                    activeMembersByBlock.merge(newBlockId, 1L, Long::sum);
+                }
+                publish();
+            }
+        };
+
+        changesInFlight.incrementAndGet();
+        TransactionCallbacks.register(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                delta.run();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                // Committed (delta applied) or rolled back - either way no longer in flight
+                changesInFlight.decrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Rebuild from the database once the surrounding transaction commits (block edits)
+     */
+    public void rebuildAfterCommit() {
+        TransactionCallbacks.afterCommit(this::rebuild);
+    }
+
+    /**
+     * Full rebuild from the database - also run periodically to correct drift
+     * Retried when a member change overlaps the queries; if every attempt overlaps, the
+     * last one is installed anyway and the next periodic rebuild corrects it
+     */
+    @Scheduled(fixedDelayString = "${app.analytics.rebuild-interval-ms:900000}",
+               initialDelayString = "${app.analytics.rebuild-interval-ms:900000}")
+    public void rebuild() {
+        for (int attempt = 1; attempt <= MAX_REBUILD_ATTEMPTS; attempt++) {
+            long sequence = rebuildSequence.incrementAndGet();
+            long startGeneration = generation.get();
+            boolean quietAtStart = changesInFlight.get() == 0;
+
+            List<Block> blocks = blockRepository.findByActiveTrueOrderByDisplayOrder();
+            Map<Long, Long> counts = new HashMap<>();
+            for (MemberRepository.BlockMemberCount row : memberRepository.countByBlock(ACTIVE)) {
+                counts.put(row.getBlockId(), row.getMemberCount());
+            }
+
+            synchronized (this) {
+                if (sequence < installedRebuild) {
+                    return; // A newer rebuild has already been installed
+                }
+                boolean overlapped = !quietAtStart || changesInFlight.get() != 0
+                        || generation.get() != startGeneration;
+                if (overlapped && attempt < MAX_REBUILD_ATTEMPTS) {
+                    continue;
+                }
+                if (overlapped) {
+                    logger.debug("Analytics rebuild overlapped member changes {} times - installed anyway",
+                            MAX_REBUILD_ATTEMPTS);
+                }
+                activeBlocks = blocks;
+                activeMembersByBlock.clear();
+                activeMembersByBlock.putAll(counts);
+                installedRebuild = sequence;
+                publish();
+            }
+            logger.debug("Analytics snapshot rebuilt for {} block(s)", blocks.size());
+            return;
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            rebuild();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    // Build immutable stats from the current counts and swap them in
+    private void publish() {
+        List<BlockStats> blockStats = new ArrayList<>(activeBlocks.size());
+        int totalMembers = 0;
+        int totalFlats = 0;
+
+        for (Block block : activeBlocks) {
+            int memberCount = activeMembersByBlock.getOrDefault(block.getId(), 0L).intValue();
+            blockStats.add(new BlockStats(
+                block.getId(),
+                block.getName(),
+                block.getShortName(),
+                block.getTotalFlats(),
+                memberCount
+            ));
+            totalMembers += memberCount;
+            totalFlats += block.getTotalFlats();
+        }
+
+        double overallPercentage = totalFlats > 0 ? (totalMembers * 100.0 / totalFlats) : 0;
+        BlockService.OverallStats overallStats =
+                new BlockService.OverallStats(totalMembers, totalFlats, overallPercentage, blockStats.size());
+
+        snapshot = new Snapshot(Collections.unmodifiableList(blockStats), overallStats, LocalDateTime.now());
+    }
+
+    /**
+     * One published version of the analytics
+     */
+    private static class Snapshot {
+        private final List<BlockStats> blockStats;
+        private final BlockService.OverallStats overallStats;
+        private final LocalDateTime builtAt;
+
+        Snapshot(List<BlockStats> blockStats, BlockService.OverallStats overallStats, LocalDateTime builtAt) {
+            this.blockStats = blockStats;
+            this.overallStats = overallStats;
+            this.builtAt = builtAt;
+        }
+
+        List<BlockStats> getBlockStats() { return blockStats; }
+        BlockService.OverallStats getOverallStats() { return overallStats; }
+        LocalDateTime getBuiltAt() { return builtAt; }
+    }
+}
@@ -4,11 +4,14 @@ import com.willows.rta.model.Block;
 import com.willows.rta.model.BlockStats;
 import com.willows.rta.repository.BlockRepository;
 import com.willows.rta.repository.MemberRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -16,13 +19,21 @@ import java.util.stream.Collectors;
 @Service
 public class BlockService {
 
+    private static final Logger logger = LoggerFactory.getLogger(BlockService.class);
+
     private final BlockRepository blockRepository;
     private final MemberRepository memberRepository;
+    private final AnalyticsSnapshotService analyticsSnapshotService;
+    private final ExportJobService exportJobService;
 
     @Autowired
-    public BlockService(BlockRepository blockRepository, MemberRepository memberRepository) {
+    public BlockService(BlockRepository blockRepository, MemberRepository memberRepository,
+                        AnalyticsSnapshotService analyticsSnapshotService,
+                        ExportJobService exportJobService) {
         this.blockRepository = blockRepository;
         this.memberRepository = memberRepository;
+        this.analyticsSnapshotService = analyticsSnapshotService;
+        this.exportJobService = exportJobService;
     }
 
     /**
@@ -51,7 +62,11 @@ public class BlockService {
      */
     @Transactional
     public Block createBlock(Block block) {
-        return blockRepository.save(block);
+        Block saved = blockRepository.save(block);
+        memberRepository.reassignBlocks();
+        analyticsSnapshotService.rebuildAfterCommit();
+        exportJobService.dataChanged();
+        return saved;
     }
 
     /**
@@ -67,7 +82,11 @@ public class BlockService {
             block.setTotalFlats(updatedBlock.getTotalFlats());
             block.setDisplayOrder(updatedBlock.getDisplayOrder());
             block.setActive(updatedBlock.getActive());
-            return blockRepository.save(block);
+            Block saved = blockRepository.save(block);
+            memberRepository.reassignBlocks(); // Short name may have changed
+            analyticsSnapshotService.rebuildAfterCommit();
+            exportJobService.dataChanged();
+            return saved;
         }
         return null;
     }
@@ -77,7 +96,11 @@ public class BlockService {
      */
     @Transactional
     public void deleteBlock(Long id) {
+        memberRepository.clearBlock(id);
         blockRepository.deleteById(id);
+        memberRepository.reassignBlocks(); // Its members may match another block
+        analyticsSnapshotService.rebuildAfterCommit();
+        exportJobService.dataChanged();
     }
 
     /**
@@ -88,25 +111,10 @@ public class BlockService {
     }
 
     /**
-     * Calculate membership stats for all active blocks
+     * Membership stats for all active blocks (served from the analytics snapshot)
      */
     public List<BlockStats> calculateBlockStats() {
-        List<Block> blocks = getAllActiveBlocks();
-        List<BlockStats> statsList = new ArrayList<>();
-
-        for (Block block : blocks) {
-            int memberCount = countMembersByBlock(block);
-            BlockStats stats = new BlockStats(
-                block.getId(),
-                block.getName(),
-                block.getShortName(),
-                block.getTotalFlats(),
-                memberCount
-            );
-            statsList.add(stats);
-        }
-
-        return statsList;
+        return analyticsSnapshotService.getBlockStats();
     }
 
     /**
@@ -125,30 +133,52 @@ public class BlockService {
     }
 
     /**
-     * Count active members in a block by checking if address contains block name
+     * Find the block a flat number / address belongs to
+     * The longest active block short name contained in either field wins (ties go
+     * to the lowest id) - keep in step with MemberRepository.reassignBlocks
      */
-    private int countMembersByBlock(Block block) {
-        // Count active members whose address contains the block name (case-insensitive)
-         return memberRepository.countActiveByBlockName("ACTIVE", block.getShortName());
+    public Block matchBlock(String flatNumber, String address) {
+        String flat = flatNumber != null ? flatNumber.toLowerCase() : "";
+        String addr = address != null ? address.toLowerCase() : "";
+
+        Block match = null;
+        for (Block block : blockRepository.findByActiveTrueOrderByDisplayOrder()) {
+            String shortName = block.getShortName().toLowerCase();
+            if (!flat.contains(shortName) && !addr.contains(shortName)) {
+                continue;
+            }
+            if (match == null
+                    || shortName.length() > match.getShortName().length()
+                    || (shortName.length() == match.getShortName().length() && block.getId() < match.getId())) {
+                match = block;
+            }
+        }
+        return match;
+    }
+
+    /**
+     * Backfill block_id for members that don't have one yet (e.g. after upgrading)
+     * Only rows without a block are touched, and only those that match a block are updated
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void assignMissingBlocks() {
+        if (memberRepository.countByBlockIsNull() == 0) {
+            return;
+        }
+        int updated = memberRepository.assignMissingBlocks();
+        if (updated > 0) {
+            logger.info("Assigned blocks for {} member(s)", updated);
+            analyticsSnapshotService.rebuildAfterCommit();
+            exportJobService.dataChanged();
+        }
     }
 
     /**
-     * Calculate overall statistics
+     * Overall statistics (served from the analytics snapshot)
      */
     public OverallStats calculateOverallStats() {
-        List<BlockStats> blockStats = calculateBlockStats();
-        
-        int totalMembers = blockStats.stream()
-                .mapToInt(BlockStats::getCurrentMembers)
-                .sum();
-        
-        int totalFlats = blockStats.stream()
-                .mapToInt(BlockStats::getTotalFlats)
-                .sum();
-        
-        double overallPercentage = totalFlats > 0 ? (totalMembers * 100.0 / totalFlats) : 0;
-        
-        return new OverallStats(totalMembers, totalFlats, overallPercentage, blockStats.size());
+        return analyticsSnapshotService.getOverallStats();
     }
 
     /**
@@ -0,0 +1,230 @@
+package com.willows.rta.service;
+
+import com.willows.rta.model.ChatEvent;
+import com.willows.rta.model.ChatMessage;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pushes chat changes to open chat pages over Server-Sent Events
+ * Replaces the 3-second polling loop: clients hold one connection open and
+ * receive new, edited and deleted messages as they happen, with a heartbeat
+ * comment keeping idle connections (and proxies) alive.
+ * Every change is also recorded in the ChatEventLog for resuming and polling clients.
+ * Each subscriber has its own bounded queue drained on a small sender pool, so a
+ * slow or half-open connection never holds up posting or the other subscribers;
+ * one that falls a full queue behind is dropped and resumes on reconnect.
+ */
+@Service
+public class ChatBroadcastService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatBroadcastService.class);
+
+    private static final long EMITTER_TIMEOUT_MS = 30 * 60 * 1000L; // Browser reconnects after this
+    private static final long HEARTBEAT_SECONDS = 25;
+    private static final int SENDER_THREADS = 4;
+    // Room for a full event log replay plus live events while it is being sent
+    private static final int SUBSCRIBER_QUEUE_CAPACITY = 2000;
+
+    private final ChatEventLog chatEventLog;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicInteger senderCount = new AtomicInteger();
+    private final ExecutorService sendExecutor = Executors.newFixedThreadPool(SENDER_THREADS, r -> {
+        Thread thread = new Thread(r, "chat-sse-send-" + senderCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ScheduledExecutorService heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "chat-sse-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public ChatBroadcastService(ChatEventLog chatEventLog) {
+        this.chatEventLog = chatEventLog;
+        heartbeatExecutor.scheduleAtFixedRate(this::sendHeartbeat,
+                HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Record a chat change in the event log and queue it for every subscriber
+     * Appending and queueing happen under the log's lock so every subscriber's queue
+     * is in sequence order; the sending itself happens on the sender pool
+     */
+    public ChatEvent publish(String type, Long messageId, ChatMessage message) {
+        synchronized (chatEventLog) {
+            ChatEvent event = chatEventLog.append(type, messageId, message);
+            broadcast(() -> toSseEvent(event));
+            return event;
+        }
+    }
+
+    /**
+     * Register a new subscriber (resume handshake)
+     * Replays the events after the client's cursor, or tells it to reload
+     * if the cursor is no longer held in the event log
+     */
+    public SseEmitter subscribe(String cursor) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        // Queue the replay and register under the log's lock so no event is missed or out of order
+        synchronized (chatEventLog) {
+            long sequence = chatEventLog.parseCursor(cursor);
+            if (cursor == null) {
+                // Fresh subscriber - nothing to replay
+            } else if (chatEventLog.canResumeFrom(sequence)) {
+                for (ChatEvent event : chatEventLog.getEventsAfter(sequence)) {
+                    subscriber.enqueue(toSseEvent(event));
+                }
+            } else {
+                String current = chatEventLog.getCurrentCursor();
+                subscriber.enqueue(SseEmitter.event()
+                        .id(current)
+                        .name("resync")
+                        .data(Map.of("cursor", current), MediaType.APPLICATION_JSON));
+            }
+            subscribers.add(subscriber);
+        }
+
+        return emitter;
+    }
+
+    /**
+     * Number of open chat connections
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    // Every event carries its cursor as the SSE event ID, so a reconnecting
+    // browser sends it back as Last-Event-ID and only receives what it missed
+    private SseEmitter.SseEventBuilder toSseEvent(ChatEvent event) {
+        SseEmitter.SseEventBuilder builder = SseEmitter.event().id(chatEventLog.toCursor(event.getSequence()));
+        switch (event.getType()) {
+            case ChatEvent.NEW:
+                return builder.name("message").data(event.getMessage(), MediaType.APPLICATION_JSON);
+            case ChatEvent.EDIT:
+                return builder.name("edit").data(event.getMessage(), MediaType.APPLICATION_JSON);
+            case ChatEvent.RESYNC:
+                return builder.name("resync").data(Map.of("cursor", chatEventLog.toCursor(event.getSequence())),
+                        MediaType.APPLICATION_JSON);
+            default:
+                return builder.name("delete").data(Map.of("id", event.getMessageId()), MediaType.APPLICATION_JSON);
+        }
+    }
+
+    // Event builders are single-use, so each subscriber gets a freshly built event
+    private void broadcast(Supplier<SseEmitter.SseEventBuilder> event) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.enqueue(event.get());
+        }
+    }
+
+    private void sendHeartbeat() {
+        broadcast(() -> SseEmitter.event().comment("heartbeat"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeatExecutor.shutdownNow();
+        sendExecutor.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+
+    /**
+     * One open connection and the events waiting to be sent to it
+     * At most one sender thread drains a subscriber at a time, which keeps its events in order
+     */
+    private class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> queue =
+                new LinkedBlockingQueue<>(SUBSCRIBER_QUEUE_CAPACITY);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        // Never blocks - a subscriber that has fallen a full queue behind is dropped
+        void enqueue(SseEmitter.SseEventBuilder event) {
+            if (closed) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                logger.debug("Dropping chat subscriber: too far behind");
+                close();
+                // The emitter is completed by the sender thread, which may be blocked writing to it
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    sendExecutor.execute(this::drain);
+                } catch (RuntimeException e) {
+                    // Shutting down
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while (!closed && (event = queue.poll()) != null) {
+                    emitter.send(event);
+                }
+                if (closed) {
+                    queue.clear();
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client has gone away - drop it, the browser will reconnect if it is still open
+                logger.debug("Dropping chat subscriber: {}", e.getMessage());
+                close();
+                queue.clear();
+                emitter.completeWithError(e);
+            } finally {
+                draining.set(false);
+            }
+            // An event may have been queued after the last poll but before draining was cleared
+            if (!closed && !queue.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        private void close() {
+            closed = true;
+            subscribers.remove(this);
+        }
+    }
+}
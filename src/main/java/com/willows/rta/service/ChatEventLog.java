@@ -0,0 +1,94 @@
+package com.willows.rta.service;
+
+import com.willows.rta.model.ChatEvent;
+import com.willows.rta.model.ChatMessage;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Bounded, sequenced log of recent chat changes
+ * A fixed-size ring buffer: each change gets the next sequence number and
+ * overwrites the oldest entry once full. Clients read the events after their
+ * own cursor, so every client sees every change and memory never grows.
+ * A cursor is "epoch-sequence": the epoch is picked at startup, so a cursor
+ * from before a restart (or from another instance) is never mistaken for one
+ * of this log's sequence numbers.
+ */
+@Service
+public class ChatEventLog {
+
+    private static final int CAPACITY = 1000;
+
+    private final ChatEvent[] buffer = new ChatEvent[CAPACITY];
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36)
+            + Integer.toString(ThreadLocalRandom.current().nextInt(36 * 36), 36);
+    private long lastSequence = 0; // Sequence of the newest event (0 = none yet)
+
+    /**
+     * Append a change and return it with its sequence number
+     */
+    public synchronized ChatEvent append(String type, Long messageId, ChatMessage message) {
+        lastSequence++;
+        ChatEvent event = new ChatEvent(lastSequence, type, messageId, message);
+        buffer[(int) (lastSequence % CAPACITY)] = event;
+        return event;
+    }
+
+    /**
+     * Cursor for a client starting now
+     */
+    public synchronized String getCurrentCursor() {
+        return toCursor(lastSequence);
+    }
+
+    /**
+     * Cursor pointing just after the given event
+     */
+    public String toCursor(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    /**
+     * Sequence number held in a cursor, or -1 if it is malformed or was issued
+     * by another run of the log (restart or other instance)
+     */
+    public long parseCursor(String cursor) {
+        if (cursor == null) {
+            return -1;
+        }
+        int dash = cursor.lastIndexOf('-');
+        if (dash <= 0 || !epoch.equals(cursor.substring(0, dash).trim())) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(cursor.substring(dash + 1).trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Can the events after this sequence number still be served from the buffer?
+     * False if the client has fallen too far behind, or parseCursor rejected
+     * its cursor - it must reload instead
+     */
+    public synchronized boolean canResumeFrom(long cursor) {
+        return cursor >= 0 && cursor <= lastSequence && lastSequence - cursor <= CAPACITY;
+    }
+
+    /**
+     * Events after the cursor, oldest first
+     * Only call when canResumeFrom(cursor) is true; otherwise returns whatever is still held
+     */
+    public synchronized List<ChatEvent> getEventsAfter(long cursor) {
+        long from = Math.max(cursor + 1, lastSequence - CAPACITY + 1);
+        List<ChatEvent> events = new ArrayList<>();
+        for (long seq = Math.max(from, 1); seq <= lastSequence; seq++) {
+            events.add(buffer[(int) (seq % CAPACITY)]);
+        }
+        return events;
+    }
+}
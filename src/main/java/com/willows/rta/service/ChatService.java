@@ -1,5 +1,6 @@
 package com.willows.rta.service;
 
+import com.willows.rta.model.ChatEvent;
 import com.willows.rta.model.ChatMessage;
 import com.willows.rta.repository.ChatMessageRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -7,35 +8,64 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class ChatService {
 
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final ChatMessageRepository chatMessageRepository;
-    
-    // Track deleted and edited messages for real-time updates
-    private final Set<Long> deletedMessageIds = ConcurrentHashMap.newKeySet();
-    private final Map<Long, ChatMessage> editedMessages = new ConcurrentHashMap<>();
+    private final ChatBroadcastService chatBroadcastService;
+    private final ChatEventLog chatEventLog;
+    private final RecentChatCache recentChatCache;
 
     @Autowired
-    public ChatService(ChatMessageRepository chatMessageRepository) {
+    public ChatService(ChatMessageRepository chatMessageRepository,
+                       ChatBroadcastService chatBroadcastService,
+                       ChatEventLog chatEventLog,
+                       RecentChatCache recentChatCache) {
         this.chatMessageRepository = chatMessageRepository;
+        this.chatBroadcastService = chatBroadcastService;
+        this.chatEventLog = chatEventLog;
+        this.recentChatCache = recentChatCache;
     }
 
     /**
      * Get last 100 messages (for initial load)
      */
     public List<ChatMessage> getRecentMessages() {
-        List<ChatMessage> messages = chatMessageRepository.findLast100Messages();
+        return getMessagesBefore(null, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Get a page of history older than a message (keyset pagination, for scroll-back)
+     * With no beforeId, returns the newest messages. Oldest first in both cases.
+     * Served from the recent-messages cache when it covers the page.
+     */
+    public List<ChatMessage> getMessagesBefore(Long beforeId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<ChatMessage> cached = beforeId == null
+                ? recentChatCache.getLatest(pageSize)
+                : recentChatCache.getOlderThan(beforeId, pageSize);
+        if (cached != null) {
+            return cached;
+        }
         
-        // Limit to 100 messages
-        if (messages.size() > 100) {
-            messages = messages.subList(0, 100);
+        PageRequest page = PageRequest.of(0, pageSize);
+        List<ChatMessage> messages;
+        if (beforeId == null) {
+            messages = chatMessageRepository.findLatest(page);
+        } else {
+            messages = chatMessageRepository.findById(beforeId)
+                    .map(m -> chatMessageRepository.findOlderThan(m.getSentAt(), m.getId(), page))
+                    .orElseGet(() -> chatMessageRepository.findOlderThanId(beforeId, page));
         }
         
         // Reverse to show oldest first (chronological order for chat)
+        messages = new ArrayList<>(messages);
         Collections.reverse(messages);
         return messages;
     }
@@ -47,6 +77,10 @@ public class ChatService {
         if (lastMessageId == null || lastMessageId == 0) {
             return Collections.emptyList();
         }
+        List<ChatMessage> cached = recentChatCache.getNewerThan(lastMessageId);
+        if (cached != null) {
+            return cached;
+        }
         return chatMessageRepository.findMessagesAfterId(lastMessageId);
     }
 
@@ -56,19 +90,62 @@ public class ChatService {
     @Transactional
     public ChatMessage postMessage(String senderName, String content, String senderRole) {
         ChatMessage message = new ChatMessage(senderName, content, senderRole);
-        return chatMessageRepository.save(message);
+        ChatMessage saved = chatMessageRepository.save(message);
+        TransactionCallbacks.afterCommit(() -> {
+            recentChatCache.put(saved);
+            chatBroadcastService.publish(ChatEvent.NEW, saved.getId(), saved);
+        });
+        return saved;
     }
 
     /**
      * Delete old messages (optional - for cleanup)
+     * Keeps the newest keepLastN messages and removes the rest in one statement;
+     * open chat pages are told to reload
+     */
+    @Transactional
+    public int deleteOldMessages(int keepLastN) {
+        if (keepLastN <= 0) {
+            return 0;
+        }
+        
+        // The oldest message to keep is the keepLastN-th newest
+        List<ChatMessage> oldestKept = chatMessageRepository.findLatest(PageRequest.of(keepLastN - 1, 1));
+        if (oldestKept.isEmpty()) {
+            return 0; // Fewer than keepLastN messages
+        }
+        
+        ChatMessage cutoff = oldestKept.get(0);
+        int deleted = chatMessageRepository.deleteOlderThan(cutoff.getSentAt(), cutoff.getId());
+        publishPurged(deleted);
+        return deleted;
+    }
+
+    /**
+     * Delete messages older than maxAgeDays (retention policy)
      */
     @Transactional
-    public void deleteOldMessages(int keepLastN) {
-        List<ChatMessage> allMessages = chatMessageRepository.findLast100Messages();
-        if (allMessages.size() > keepLastN) {
-            List<ChatMessage> toDelete = allMessages.subList(keepLastN, allMessages.size());
-            chatMessageRepository.deleteAll(toDelete);
+    public int deleteMessagesOlderThan(int maxAgeDays) {
+        if (maxAgeDays <= 0) {
+            return 0;
         }
+        
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(maxAgeDays);
+        int deleted = chatMessageRepository.deleteSentBefore(cutoff);
+        publishPurged(deleted);
+        return deleted;
+    }
+
+    // After a bulk delete commits: reload the cache and send one RESYNC event, however many
+    // messages went - the ids are never loaded, and clients reload their history instead
+    private void publishPurged(int deleted) {
+        if (deleted == 0) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            recentChatCache.invalidate();
+            chatBroadcastService.publish(ChatEvent.RESYNC, null, null);
+        });
     }
 
     /**
@@ -84,6 +161,10 @@ public class ChatService {
     @Transactional
     public void deleteMessage(Long id) {
         chatMessageRepository.deleteById(id);
+        TransactionCallbacks.afterCommit(() -> {
+            recentChatCache.remove(id);
+            chatBroadcastService.publish(ChatEvent.DELETE, id, null);
+        });
     }
 
     /**
@@ -96,42 +177,40 @@ public class ChatService {
             ChatMessage message = messageOpt.get();
             message.setContent(newContent);
             ChatMessage updated = chatMessageRepository.save(message);
+            TransactionCallbacks.afterCommit(() -> {
+                recentChatCache.put(updated);
+                chatBroadcastService.publish(ChatEvent.EDIT, updated.getId(), updated);
+            });
             return updated;
         }
         return null;
     }
 
     /**
-     * Notify that a message was deleted
+     * Current chat event cursor - where a client starting now should read from
      */
-    public void notifyMessageDeleted(Long messageId) {
-        deletedMessageIds.add(messageId);
+    public String getCurrentCursor() {
+        return chatEventLog.getCurrentCursor();
     }
 
     /**
-     * Notify that a message was edited
+     * Can changes after this cursor still be served? (false = client must reload)
      */
-    public void notifyMessageEdited(ChatMessage message) {
-        if (message != null) {
-            editedMessages.put(message.getId(), message);
-        }
+    public boolean canResumeFrom(String cursor) {
+        return chatEventLog.canResumeFrom(chatEventLog.parseCursor(cursor));
     }
 
     /**
-     * Get and clear deleted message IDs (for polling)
+     * Chat changes after a client's cursor (for polling)
      */
-    public List<Long> getAndClearDeletedIds() {
-        List<Long> ids = new ArrayList<>(deletedMessageIds);
-        deletedMessageIds.clear();
-        return ids;
+    public List<ChatEvent> getEventsAfter(String cursor) {
+        return chatEventLog.getEventsAfter(chatEventLog.parseCursor(cursor));
     }
 
     /**
-     * Get and clear edited messages (for polling)
+     * Cursor pointing just after an event
      */
-    public List<ChatMessage> getAndClearEditedMessages() {
-        List<ChatMessage> messages = new ArrayList<>(editedMessages.values());
-        editedMessages.clear();
-        return messages;
+    public String toCursor(ChatEvent event) {
+        return chatEventLog.toCursor(event.getSequence());
     }
 }
@@ -0,0 +1,84 @@
+package com.willows.rta.service;
+
+import com.willows.rta.repository.MemberRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Member counters for the admin dashboard
+ * Each figure is a COUNT query; the results are cached for a short TTL and
+ * dropped as soon as a member change commits (MemberService calls invalidate).
+ */
+@Service
+public class DashboardCounterService {
+
+    private final MemberRepository memberRepository;
+    private final long ttlMillis;
+
+    private volatile Counters counters;
+    // Bumped on every invalidation so a load that raced with a change is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public DashboardCounterService(MemberRepository memberRepository,
+                                   @Value("${app.dashboard.counters-ttl-ms:30000}") long ttlMillis) {
+        this.memberRepository = memberRepository;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Current counters, reloaded when missing or older than the TTL
+     */
+    public Counters getCounters() {
+        Counters current = counters;
+        if (current != null && System.currentTimeMillis() - current.getLoadedAt() < ttlMillis) {
+            return current;
+        }
+
+        long loadGeneration = generation.get();
+        Counters loaded = new Counters(
+                memberRepository.count(),
+                memberRepository.countByMembershipStatus("ACTIVE"),
+                memberRepository.countByHasUserAccountFalse(),
+                System.currentTimeMillis());
+        if (generation.get() == loadGeneration) {
+            counters = loaded;
+        }
+        return loaded;
+    }
+
+    /**
+     * Drop the cached counters once the surrounding transaction commits
+     */
+    public void invalidate() {
+        TransactionCallbacks.afterCommit(() -> {
+            generation.incrementAndGet();
+            counters = null;
+        });
+    }
+
+    /**
+     * Inner class for one set of dashboard counters
+     */
+    public static class Counters {
+        private final long totalMembers;
+        private final long activeMembers;
+        private final long membersWithoutAccounts;
+        private final long loadedAt;
+
+        public Counters(long totalMembers, long activeMembers, long membersWithoutAccounts, long loadedAt) {
+            this.totalMembers = totalMembers;
+            this.activeMembers = activeMembers;
+            this.membersWithoutAccounts = membersWithoutAccounts;
+            this.loadedAt = loadedAt;
+        }
+
+        public long getTotalMembers() { return totalMembers; }
+        public long getActiveMembers() { return activeMembers; }
+        public long getMembersWithoutAccounts() { return membersWithoutAccounts; }
+        public long getLoadedAt() { return loadedAt; }
+    }
+}
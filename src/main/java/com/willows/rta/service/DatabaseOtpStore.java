@@ -0,0 +1,72 @@
+package com.willows.rta.service;
+
+import com.willows.rta.model.OtpCode;
+import com.willows.rta.repository.OtpRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * OTP codes in the otp_codes table (app.otp.store=database)
+ * For running several instances - a code issued by one can be verified by another
+ */
+@Service
+@ConditionalOnProperty(name = "app.otp.store", havingValue = "database")
+public class DatabaseOtpStore implements OtpStore {
+
+    private final OtpRepository otpRepository;
+
+    @Autowired
+    public DatabaseOtpStore(OtpRepository otpRepository) {
+        this.otpRepository = otpRepository;
+    }
+
+    @Override
+    @Transactional
+    public void issue(String username, String codeHash, int validityMinutes) {
+        otpRepository.markAllUsedByUsername(username);
+        otpRepository.save(new OtpCode(username, codeHash, validityMinutes));
+    }
+
+    @Override
+    @Transactional
+    public boolean verify(String username, String codeHash, int maxAttempts) {
+        Optional<OtpCode> otpOpt = otpRepository.findTopByUsernameAndUsedFalseOrderByCreatedAtDesc(username);
+        if (otpOpt.isEmpty() || !otpOpt.get().isValid()) {
+            return false;
+        }
+
+        OtpCode otp = otpOpt.get();
+        if (MessageDigest.isEqual(otp.getCode().getBytes(StandardCharsets.US_ASCII),
+                                  codeHash.getBytes(StandardCharsets.US_ASCII))) {
+            // Conditional, so two concurrent verifies cannot both use the code
+            return otpRepository.markUsed(otp.getId()) == 1;
+        }
+
+        otpRepository.recordFailedAttempt(otp.getId(), maxAttempts);
+        return false;
+    }
+
+    @Override
+    @Transactional
+    public void invalidate(String username) {
+        otpRepository.markAllUsedByUsername(username);
+    }
+
+    @Override
+    @Transactional
+    public int purgeExpired() {
+        return otpRepository.deleteExpiredOrUsed(LocalDateTime.now());
+    }
+
+    @Override
+    public boolean isShared() {
+        return true;
+    }
+}
@@ -0,0 +1,272 @@
+package com.willows.rta.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Member exports generated in the background
+ * A job is queued on the bounded export executor, written to a file under app.export.dir,
+ * then polled for progress and downloaded. A finished export is reused for identical
+ * filter requests until member or block data changes (tracked as a data version).
+ */
+@Service
+public class ExportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportJobService.class);
+
+    public static final String QUEUED = "QUEUED";
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    private final MemberExportService exportService;
+    private final Executor exportExecutor;
+    private final Path exportDir;
+    private final long retentionMinutes;
+
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+    // Filters + format -> latest job for them
+    private final Map<String, ExportJob> jobsByKey = new ConcurrentHashMap<>();
+    private final AtomicLong dataVersion = new AtomicLong();
+
+    @Autowired
+    public ExportJobService(MemberExportService exportService,
+                            @Qualifier("exportExecutor") Executor exportExecutor,
+                            @Value("${app.export.dir:${java.io.tmpdir}/willows-exports}") String exportDir,
+                            @Value("${app.export.retention-minutes:60}") long retentionMinutes) {
+        this.exportService = exportService;
+        this.exportExecutor = exportExecutor;
+        this.exportDir = Paths.get(exportDir);
+        this.retentionMinutes = retentionMinutes;
+    }
+
+    /**
+     * Create the export directory and remove export files left by a previous run
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void prepareExportDir() {
+        try {
+            Files.createDirectories(exportDir);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(exportDir, "*.{part,csv,xlsx}")) {
+                for (Path file : files) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Could not prepare export directory {}", exportDir, e);
+        }
+    }
+
+    /**
+     * Submit an export, or return the existing job for the same filters if the data has not changed since
+     */
+    public synchronized ExportJob submit(String block, String status, Boolean hasAccount, String format) {
+        String normalisedFormat = "xlsx".equalsIgnoreCase(format) ? "xlsx" : "csv";
+        String key = normalisedFormat + "|" + Objects.toString(block, "") + "|"
+                + Objects.toString(status, "") + "|" + Objects.toString(hasAccount, "");
+        long version = dataVersion.get();
+
+        ExportJob existing = jobsByKey.get(key);
+        if (existing != null && existing.dataVersion == version && !FAILED.equals(existing.status)) {
+            logger.debug("Reusing export job {} for {}", existing.id, key);
+            return existing;
+        }
+
+        ExportJob job = new ExportJob(UUID.randomUUID().toString(), key, normalisedFormat,
+                buildFilename(block, status, hasAccount, normalisedFormat), version);
+        jobs.put(job.id, job);
+        try {
+            exportExecutor.execute(() -> run(job, block, status, hasAccount));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.id);
+            throw new RuntimeException("The export queue is full, please try again shortly");
+        }
+        jobsByKey.put(key, job);
+        return job;
+    }
+
+    /**
+     * Get a job by id
+     */
+    public ExportJob getJob(String id) {
+        ExportJob job = jobs.get(id);
+        if (job == null) {
+            throw new RuntimeException("Export not found or expired");
+        }
+        return job;
+    }
+
+    /**
+     * Get the file of a completed job
+     */
+    public Path getArtifact(String id) {
+        ExportJob job = getJob(id);
+        if (!COMPLETED.equals(job.status)) {
+            throw new RuntimeException("Export is not ready yet");
+        }
+        return job.file;
+    }
+
+    /**
+     * Member or block data changed - finished exports are no longer reused once the change commits
+     */
+    public void dataChanged() {
+        TransactionCallbacks.afterCommit(dataVersion::incrementAndGet);
+    }
+
+    /**
+     * Drop jobs (and their files) that finished more than the retention period ago
+     */
+    @Scheduled(fixedDelayString = "${app.export.cleanup-interval-ms:600000}")
+    public void removeExpiredJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        for (ExportJob job : jobs.values()) {
+            if (job.completedAt != null && job.completedAt.isBefore(cutoff)) {
+                jobs.remove(job.id);
+                jobsByKey.remove(job.key, job);
+                deleteQuietly(job.file);
+            }
+        }
+    }
+
+    private void run(ExportJob job, String block, String status, Boolean hasAccount) {
+        job.status = RUNNING;
+        Path partFile = exportDir.resolve(job.id + ".part");
+        Path file = exportDir.resolve(job.id + "." + job.format);
+        boolean completed = false;
+        try {
+            Files.createDirectories(exportDir);
+            job.totalRows = exportService.countMembers(block, status, hasAccount);
+
+            if ("xlsx".equals(job.format)) {
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partFile))) {
+                    exportService.exportToExcel(block, status, hasAccount, out, rows -> job.rowsWritten = rows);
+                }
+            } else {
+                try (Writer writer = Files.newBufferedWriter(partFile, StandardCharsets.UTF_8)) {
+                    exportService.exportToCsv(block, status, hasAccount, writer, rows -> job.rowsWritten = rows);
+                }
+            }
+
+            Files.move(partFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            job.file = file;
+            completed = true;
+            logger.info("Export {} completed: {} row(s) in {}", job.id, job.rowsWritten, job.filename);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Export {} failed", job.id, e);
+        } finally {
+            // Always end in a terminal state, even on an Error (e.g. out of memory on a large workbook),
+            // so the job is reaped and the next request for the same filters starts afresh
+            if (!completed) {
+                deleteQuietly(partFile);
+                job.error = "Export failed";
+            }
+            job.completedAt = LocalDateTime.now();
+            job.status = completed ? COMPLETED : FAILED;
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete export file {}", file, e);
+        }
+    }
+
+    // Descriptive filename for the download
+    private String buildFilename(String block, String status, Boolean hasAccount, String format) {
+        StringBuilder filename = new StringBuilder("willows-members");
+
+        if (block != null && !block.isEmpty()) {
+            filename.append("-").append(block.toLowerCase().replace(" ", "-"));
+        }
+
+        if (status != null && !status.isEmpty()) {
+            filename.append("-").append(status.toLowerCase());
+        }
+
+        if (hasAccount != null) {
+            filename.append(hasAccount ? "-with-accounts" : "-no-accounts");
+        }
+
+        filename.append("-").append(LocalDate.now().toString());
+        filename.append(".").append(format);
+
+        return filename.toString();
+    }
+
+    /**
+     * Inner class for one export job
+     */
+    public static class ExportJob {
+        private final String id;
+        private final String key;
+        private final String format;
+        private final String filename;
+        private final long dataVersion;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private volatile String status = QUEUED;
+        private volatile long totalRows;
+        private volatile int rowsWritten;
+        private volatile String error;
+        private volatile LocalDateTime completedAt;
+        private volatile Path file;
+
+        ExportJob(String id, String key, String format, String filename, long dataVersion) {
+            this.id = id;
+            this.key = key;
+            this.format = format;
+            this.filename = filename;
+            this.dataVersion = dataVersion;
+        }
+
+        public String getId() { return id; }
+        public String getFormat() { return format; }
+        public String getFilename() { return filename; }
+        public String getStatus() { return status; }
+        public long getTotalRows() { return totalRows; }
+        public int getRowsWritten() { return rowsWritten; }
+        public String getError() { return error; }
+        public LocalDateTime getCreatedAt() { return createdAt; }
+        public LocalDateTime getCompletedAt() { return completedAt; }
+
+        public int getPercent() {
+            if (COMPLETED.equals(status)) {
+                return 100;
+            }
+            long total = totalRows;
+            return total > 0 ? (int) Math.min(99, rowsWritten * 100L / total) : 0;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.willows.rta.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * OTP codes held in memory, one per username (app.otp.store=memory, the default)
+ * Issuing and verifying a code costs no SQL. Expired codes are evicted by a timer
+ * wheel: each code is filed under the tick it expires in, and every tick only
+ * looks at the usernames filed under it rather than scanning the whole map.
+ * Codes do not survive a restart and are not shared between instances.
+ */
+@Service
+@ConditionalOnProperty(name = "app.otp.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOtpStore implements OtpStore {
+
+    private static final long TICK_MILLIS = 10_000L;
+    // 64 ticks cover 10+ minutes - longer validities just go round the wheel again
+    private static final int WHEEL_SIZE = 64;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Set<String>[] wheel;
+    // Last tick the wheel has been advanced to (only touched by advanceWheel)
+    private long lastTick;
+
+    @SuppressWarnings("unchecked")
+    public InMemoryOtpStore() {
+        this.wheel = new Set[WHEEL_SIZE];
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel[i] = ConcurrentHashMap.newKeySet();
+        }
+        this.lastTick = currentTick();
+    }
+
+    @Override
+    public void issue(String username, String codeHash, int validityMinutes) {
+        long expiresAt = System.currentTimeMillis() + validityMinutes * 60_000L;
+        entries.put(username, new Entry(codeHash.getBytes(StandardCharsets.US_ASCII), expiresAt, 0));
+        schedule(username, expiresAt);
+    }
+
+    @Override
+    public boolean verify(String username, String codeHash, int maxAttempts) {
+        byte[] candidate = codeHash.getBytes(StandardCharsets.US_ASCII);
+        long now = System.currentTimeMillis();
+        boolean[] matched = {false};
+
+        // Atomic per username: a code is consumed at most once, attempts are never lost
+        entries.computeIfPresent(username, (key, entry) -> {
+            if (entry.expiresAt <= now) {
+                return null;
+            }
+            if (MessageDigest.isEqual(entry.codeHash, candidate)) {
+                matched[0] = true;
+                return null;
+            }
+            int attempts = entry.failedAttempts + 1;
+            return attempts >= maxAttempts ? null : new Entry(entry.codeHash, entry.expiresAt, attempts);
+        });
+        return matched[0];
+    }
+
+    @Override
+    public void invalidate(String username) {
+        entries.remove(username);
+    }
+
+    @Override
+    public int purgeExpired() {
+        return advanceWheel();
+    }
+
+    @Override
+    public boolean isShared() {
+        return false;
+    }
+
+    /**
+     * Evict codes whose tick has passed
+     */
+    @Scheduled(fixedDelay = TICK_MILLIS)
+    public void tick() {
+        advanceWheel();
+    }
+
+    // Visit every slot from the last processed tick up to now
+    private synchronized int advanceWheel() {
+        long now = System.currentTimeMillis();
+        long nowTick = now / TICK_MILLIS;
+        int removed = 0;
+
+        for (long tick = Math.max(lastTick + 1, nowTick - WHEEL_SIZE + 1); tick <= nowTick; tick++) {
+            Set<String> slot = wheel[(int) (tick % WHEEL_SIZE)];
+            List<String> notDue = new ArrayList<>();
+            for (String username : slot) {
+                slot.remove(username);
+                Entry entry = entries.get(username);
+                if (entry == null) {
+                    continue;
+                }
+                if (entry.expiresAt <= now) {
+                    if (entries.remove(username, entry)) {
+                        removed++;
+                    }
+                } else {
+                    // Due on a later round, later in this tick, or reissued since
+                    notDue.add(username);
+                }
+            }
+            for (String username : notDue) {
+                Entry entry = entries.get(username);
+                if (entry != null) {
+                    long dueTick = Math.max(entry.expiresAt / TICK_MILLIS, tick + 1);
+                    wheel[(int) (dueTick % WHEEL_SIZE)].add(username);
+                }
+            }
+        }
+        lastTick = nowTick;
+        return removed;
+    }
+
+    private void schedule(String username, long expiresAt) {
+        wheel[(int) ((expiresAt / TICK_MILLIS) % WHEEL_SIZE)].add(username);
+    }
+
+    private long currentTick() {
+        return System.currentTimeMillis() / TICK_MILLIS;
+    }
+
+    /**
+     * One issued code
+     */
+    private static class Entry {
+        private final byte[] codeHash;
+        private final long expiresAt;
+        private final int failedAttempts;
+
+        Entry(byte[] codeHash, long expiresAt, int failedAttempts) {
+            this.codeHash = codeHash;
+            this.expiresAt = expiresAt;
+            this.failedAttempts = failedAttempts;
+        }
+    }
+}
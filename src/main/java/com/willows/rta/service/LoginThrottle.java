@@ -0,0 +1,192 @@
+package com.willows.rta.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory sliding-window counter of failed logins, per account and per client IP
+ * Checked before any database or bcrypt work, so a credential-stuffing wave is turned
+ * away cheaply. Only crossing the account threshold is written to the database
+ * (User.accountLockedUntil), which keeps the lock across restarts and instances.
+ * Account counters are exact and only kept for usernames that exist, so their number is
+ * bounded by the users table; failures against unknown usernames only count towards the
+ * IP limit. IP counters live in a fixed-size table of striped, CAS-updated slots: memory
+ * is bounded whatever the number of addresses, and collisions can only over-count.
+ */
+@Service
+public class LoginThrottle {
+
+    // Count in the low 20 bits of a slot, bucket number above it
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final int usernameLimit;
+    private final int ipLimit;
+    private final long bucketMillis;
+    private final int buckets;
+
+    private final Map<String, AtomicLongArray> accounts = new ConcurrentHashMap<>();
+    private final CounterTable ips;
+
+    @Autowired
+    public LoginThrottle(@Value("${app.security.login-throttle.username-limit:5}") int usernameLimit,
+                         @Value("${app.security.login-throttle.ip-limit:50}") int ipLimit,
+                         @Value("${app.security.login-throttle.window-minutes:15}") int windowMinutes,
+                         @Value("${app.security.login-throttle.ip-stripes:4096}") int ipStripes) {
+        this.usernameLimit = usernameLimit;
+        this.ipLimit = ipLimit;
+        this.bucketMillis = 60_000L;
+        this.buckets = Math.max(1, windowMinutes);
+        this.ips = new CounterTable(ipStripes, buckets);
+    }
+
+    /**
+     * Failures allowed per account within the window (the lockout threshold)
+     */
+    public int getUsernameLimit() {
+        return usernameLimit;
+    }
+
+    /**
+     * Whether this account has used up its failures for the window
+     */
+    public boolean isUsernameBlocked(String username) {
+        return getFailureCount(username) >= usernameLimit;
+    }
+
+    /**
+     * Whether this client IP has used up its failures for the window
+     */
+    public boolean isIpBlocked(String ip) {
+        return ip != null && ips.count(ip, currentBucket()) >= ipLimit;
+    }
+
+    /**
+     * Failed logins for this account within the window
+     */
+    public int getFailureCount(String username) {
+        String key = key(username);
+        AtomicLongArray window = key != null ? accounts.get(key) : null;
+        return window != null ? sum(window, 0, buckets, currentBucket()) : 0;
+    }
+
+    /**
+     * Record a failed login from a client IP (unknown usernames are only counted here)
+     */
+    public void recordIpFailure(String ip) {
+        if (ip != null) {
+            ips.increment(ip, currentBucket());
+        }
+    }
+
+    /**
+     * Record a wrong password for an existing account - returns its exact failures in the window
+     */
+    public int recordAccountFailure(String username) {
+        String key = key(username);
+        if (key == null) {
+            return 0;
+        }
+        long bucket = currentBucket();
+        AtomicLongArray window = accounts.computeIfAbsent(key, k -> new AtomicLongArray(buckets));
+        increment(window, (int) (bucket % buckets), bucket);
+        return sum(window, 0, buckets, bucket);
+    }
+
+    /**
+     * Successful login or admin unlock - forget the account's failures
+     */
+    public void reset(String username) {
+        String key = key(username);
+        if (key != null) {
+            accounts.remove(key);
+        }
+    }
+
+    private long currentBucket() {
+        return System.currentTimeMillis() / bucketMillis;
+    }
+
+    private String key(String username) {
+        return username != null ? username.trim().toLowerCase() : null;
+    }
+
+    private static void increment(AtomicLongArray slots, int index, long bucket) {
+        while (true) {
+            long current = slots.get(index);
+            long next = (current >>> COUNT_BITS) == bucket
+                    ? current + ((current & COUNT_MASK) < COUNT_MASK ? 1 : 0)
+                    : (bucket << COUNT_BITS) | 1;
+            if (slots.compareAndSet(index, current, next)) {
+                return;
+            }
+        }
+    }
+
+    // Failures in the last "buckets" buckets, current one included
+    private static int sum(AtomicLongArray slots, int base, int buckets, long bucket) {
+        int total = 0;
+        for (int i = 0; i < buckets; i++) {
+            long slot = slots.get(base + i);
+            if (bucket - (slot >>> COUNT_BITS) < buckets) {
+                total += (int) (slot & COUNT_MASK);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Fixed number of stripes, each a ring of (bucket, count) slots packed into longs
+     * Slots from buckets outside the window are ignored and overwritten on the next
+     * increment, so nothing ever needs sweeping. Each key maps to two stripes (with a
+     * per-run random seed) and reads the smaller count.
+     */
+    private static class CounterTable {
+        private final AtomicLongArray slots;
+        private final int stripeMask;
+        private final int buckets;
+        private final int seed1 = ThreadLocalRandom.current().nextInt();
+        private final int seed2 = ThreadLocalRandom.current().nextInt();
+
+        CounterTable(int stripes, int buckets) {
+            // Round up to a power of two so a stripe is picked with a mask
+            int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+            this.slots = new AtomicLongArray(size * buckets);
+            this.stripeMask = size - 1;
+            this.buckets = buckets;
+        }
+
+        void increment(String key, long bucket) {
+            int first = stripe(key, seed1);
+            int second = stripe(key, seed2);
+            int offset = (int) (bucket % buckets);
+            LoginThrottle.increment(slots, first * buckets + offset, bucket);
+            if (second != first) {
+                LoginThrottle.increment(slots, second * buckets + offset, bucket);
+            }
+        }
+
+        int count(String key, long bucket) {
+            return Math.min(sum(slots, stripe(key, seed1) * buckets, buckets, bucket),
+                    sum(slots, stripe(key, seed2) * buckets, buckets, bucket));
+        }
+
+        // Seeded FNV-1a with a final mix - the random seed keeps collisions unpredictable
+        private int stripe(String key, int seed) {
+            int hash = seed ^ 0x811c9dc5;
+            for (int i = 0; i < key.length(); i++) {
+                hash = (hash ^ key.charAt(i)) * 0x01000193;
+            }
+            hash ^= hash >>> 16;
+            hash *= 0x85ebca6b;
+            hash ^= hash >>> 13;
+            return hash & stripeMask;
+        }
+    }
+}
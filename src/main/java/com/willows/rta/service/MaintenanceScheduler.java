@@ -0,0 +1,135 @@
+package com.willows.rta.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/**
+ * Background maintenance jobs: poll auto-close, OTP purge and chat retention
+ * Each job runs as one set-based statement inside a transaction that first takes a
+ * PostgreSQL advisory lock, so when several instances share the database only one
+ * of them runs a given job - the others skip that run. On other databases (the
+ * embedded H2 profile) there is only one instance and the lock is not taken.
+ * Rows affected and duration are published as maintenance.job.rows / maintenance.job.duration.
+ */
+@Component
+public class MaintenanceScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(MaintenanceScheduler.class);
+
+    // Advisory lock keys - one per job, shared by every instance
+    private static final long POLL_CLOSE_LOCK = 7_300_001L;
+    private static final long OTP_PURGE_LOCK = 7_300_002L;
+    private static final long CHAT_RETENTION_LOCK = 7_300_003L;
+
+    private final PollService pollService;
+    private final OtpService otpService;
+    private final ChatService chatService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int chatKeepLast;
+    private final int chatMaxAgeDays;
+    private volatile Boolean postgres;
+
+    @Autowired
+    public MaintenanceScheduler(PollService pollService,
+                                OtpService otpService,
+                                ChatService chatService,
+                                JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.maintenance.chat-retention.keep-last:0}") int chatKeepLast,
+                                @Value("${app.maintenance.chat-retention.max-age-days:0}") int chatMaxAgeDays) {
+        this.pollService = pollService;
+        this.otpService = otpService;
+        this.chatService = chatService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.chatKeepLast = chatKeepLast;
+        this.chatMaxAgeDays = chatMaxAgeDays;
+    }
+
+    /**
+     * Close ACTIVE polls whose deadline has passed
+     * Safety net only - PollDeadlineScheduler closes polls at their exact deadline
+     */
+    @Scheduled(cron = "${app.maintenance.poll-close.cron:0 * * * * *}")
+    public void closeExpiredPolls() {
+        runJob("poll-close", POLL_CLOSE_LOCK, pollService::autoCloseExpiredPolls);
+    }
+
+    /**
+     * Delete expired and used OTP codes
+     */
+    @Scheduled(cron = "${app.maintenance.otp-purge.cron:0 */15 * * * *}")
+    public void purgeOtpCodes() {
+        runJob("otp-purge", OTP_PURGE_LOCK, otpService::cleanupExpiredOtps);
+    }
+
+    /**
+     * Apply the chat retention policy (keep the newest N messages, and/or drop messages past a maximum age)
+     */
+    @Scheduled(cron = "${app.maintenance.chat-retention.cron:0 30 3 * * *}")
+    public void applyChatRetention() {
+        runJob("chat-retention", CHAT_RETENTION_LOCK,
+                () -> chatService.deleteOldMessages(chatKeepLast) + chatService.deleteMessagesOlderThan(chatMaxAgeDays));
+    }
+
+    private void runJob(String job, long lockKey, IntSupplier work) {
+        long start = System.nanoTime();
+        try {
+            // The lock is transaction-scoped, so it is released on commit or rollback
+            Integer rows = transactionTemplate.execute(status -> {
+                if (!isPostgres()) {
+                    return work.getAsInt();
+                }
+                Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, lockKey);
+                return Boolean.TRUE.equals(locked) ? work.getAsInt() : null;
+            });
+
+            if (rows == null) {
+                Counter.builder("maintenance.job.skipped").tag("job", job).register(meterRegistry).increment();
+                logger.debug("Maintenance job {} skipped - running on another instance", job);
+                return;
+            }
+
+            long elapsed = System.nanoTime() - start;
+            Timer.builder("maintenance.job.duration").tag("job", job).register(meterRegistry)
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+            Counter.builder("maintenance.job.rows").tag("job", job).register(meterRegistry).increment(rows);
+            if (rows > 0) {
+                logger.info("Maintenance job {} affected {} row(s) in {} ms", job, rows,
+                        TimeUnit.NANOSECONDS.toMillis(elapsed));
+            }
+        } catch (RuntimeException e) {
+            Counter.builder("maintenance.job.failures").tag("job", job).register(meterRegistry).increment();
+            logger.error("Maintenance job {} failed", job, e);
+        }
+    }
+
+    // Advisory locks are PostgreSQL-only - checked once against the live connection
+    private boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            result = "PostgreSQL".equalsIgnoreCase(product);
+            postgres = result;
+        }
+        return result;
+    }
+}
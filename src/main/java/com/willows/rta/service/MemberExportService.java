@@ -1,11 +1,12 @@
 package com.willows.rta.service;
 
-import java.awt.HeadlessException;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.PrintWriter;
+import java.io.Writer;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.util.Iterator;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
 
 import org.apache.poi.ss.usermodel.BorderStyle;
 import org.apache.poi.ss.usermodel.Cell;
@@ -15,13 +16,14 @@ import org.apache.poi.ss.usermodel.Font;
 import org.apache.poi.ss.usermodel.IndexedColors;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import com.willows.rta.model.Member;
+import com.willows.rta.repository.MemberRepository;
 
 /**
  * Service for exporting member data to various formats
@@ -32,118 +34,181 @@ public class MemberExportService {
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
     private static final Logger logger = LoggerFactory.getLogger(MemberExportService.class);
 
+    private static final String CSV_HEADER =
+        "ID,Full Name,Flat Number,Address,Email,Phone,Membership Status,Has Login Account,Leaseholder,Registration Date";
+    private static final int CSV_FLUSH_ROWS = 500;
+    private static final int CSV_BUFFER_SIZE = 64 * 1024;
+
+    private static final String[] EXCEL_HEADERS = {
+        "ID", "Full Name", "Flat Number", "Address", "Email",
+        "Phone", "Membership Status", "Has Login Account",
+        "Leaseholder", "Registration Date"
+    };
+    private static final int EXCEL_ROW_WINDOW = 100;
+    private static final int EXCEL_MAX_COLUMN_CHARS = 80;
+    private static final int EXCEL_PROGRESS_ROWS = 500;
+
+    private static final IntConsumer NO_PROGRESS = rows -> { };
+
+    private final MemberRepository memberRepository;
+
+    @Autowired
+    public MemberExportService(MemberRepository memberRepository) {
+        this.memberRepository = memberRepository;
+    }
+
+    /**
+     * Number of members an export with these filters will contain
+     */
+    @Transactional(readOnly = true)
+    public long countMembers(String block, String status, Boolean hasAccount) {
+        return memberRepository.countForExport(blockFilter(block), statusFilter(status), hasAccount);
+    }
+
+    /**
+     * Export members matching the filters to CSV
+     * Rows come from a database cursor and are written through one reused buffer,
+     * flushed to the writer every CSV_FLUSH_ROWS rows - memory stays flat and the
+     * header reaches the client before the query has finished.
+     */
+    @Transactional(readOnly = true)
+    public void exportToCsv(String block, String status, Boolean hasAccount, Writer writer) throws IOException {
+        exportToCsv(block, status, hasAccount, writer, NO_PROGRESS);
+    }
+
     /**
-     * Export members to CSV format
+     * Export members to CSV, reporting the number of rows written after each flush
      */
-    public void exportToCsv(List<Member> members, PrintWriter writer) {
-        // Write header
-        writer.println("ID,Full Name,Flat Number,Address,Email,Phone,Membership Status,Has Login Account,Leaseholder,Registration Date");
-
-        // Write data rows
-        for (Member m : members) {
-            writer.println(String.format("%d,%s,%s,%s,%s,%s,%s,%s,%s,%s",
-                m.getId(),
-                escapeCsv(m.getFullName()),
-                escapeCsv(m.getFlatNumber()),
-                escapeCsv(m.getAddress()),
-                escapeCsv(m.getEmail()),
-                escapeCsv(m.getPhoneNumber()),
-                m.getMembershipStatus(),
-                m.isHasUserAccount() ? "Yes" : "No",
-                m.isLeaseholder() ? "Yes" : "No",
-                m.getRegistrationDate() != null ? m.getRegistrationDate().format(DATE_FORMATTER) : ""
-            ));
+    @Transactional(readOnly = true)
+    public void exportToCsv(String block, String status, Boolean hasAccount, Writer writer,
+                            IntConsumer progress) throws IOException {
+        StringBuilder buffer = new StringBuilder(CSV_BUFFER_SIZE);
+        buffer.append(CSV_HEADER).append('\n');
+        writer.append(buffer);
+        writer.flush();
+        buffer.setLength(0);
+
+        int pending = 0;
+        int written = 0;
+        try (Stream<MemberRepository.MemberExportRow> rows = streamMembers(block, status, hasAccount)) {
+            Iterator<MemberRepository.MemberExportRow> it = rows.iterator();
+            while (it.hasNext()) {
+                appendCsvRow(buffer, it.next());
+                written++;
+                if (++pending == CSV_FLUSH_ROWS) {
+                    writer.append(buffer);
+                    writer.flush();
+                    buffer.setLength(0);
+                    pending = 0;
+                    progress.accept(written);
+                }
+            }
         }
-        
+
+        writer.append(buffer);
         writer.flush();
+        progress.accept(written);
     }
 
     /**
-     * Export members to Excel format with formatting
+     * Export members matching the filters to Excel with formatting
+     * Streams rows from a database cursor into an SXSSF workbook: only the last
+     * EXCEL_ROW_WINDOW rows stay in memory, the rest are flushed to a compressed
+     * temp file. Column widths come from the longest value seen in each column,
+     * so no AWT font metrics are needed (headless servers included).
      */
-    public void exportToExcel(List<Member> members, OutputStream outputStream) throws IOException {
-        Workbook workbook = new XSSFWorkbook();
-        Sheet sheet = workbook.createSheet("Members");
-
-        // Create header style
-        CellStyle headerStyle = workbook.createCellStyle();
-        Font headerFont = workbook.createFont();
-        headerFont.setBold(true);
-        headerFont.setFontHeightInPoints((short) 12);
-        headerStyle.setFont(headerFont);
-        headerStyle.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
-        headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-        headerStyle.setBorderBottom(BorderStyle.THIN);
-        headerStyle.setBorderTop(BorderStyle.THIN);
-        headerStyle.setBorderLeft(BorderStyle.THIN);
-        headerStyle.setBorderRight(BorderStyle.THIN);
-
-        // Create data style
-        CellStyle dataStyle = workbook.createCellStyle();
-        dataStyle.setBorderBottom(BorderStyle.THIN);
-        dataStyle.setBorderTop(BorderStyle.THIN);
-        dataStyle.setBorderLeft(BorderStyle.THIN);
-        dataStyle.setBorderRight(BorderStyle.THIN);
-
-        // Header row
-        Row headerRow = sheet.createRow(0);
-        String[] headers = {
-            "ID", "Full Name", "Flat Number", "Address", "Email", 
-            "Phone", "Membership Status", "Has Login Account", 
-            "Leaseholder", "Registration Date"
-        };
-
-        for (int i = 0; i < headers.length; i++) {
-            Cell cell = headerRow.createCell(i);
-            cell.setCellValue(headers[i]);
-            cell.setCellStyle(headerStyle);
-        }
+    @Transactional(readOnly = true)
+    public void exportToExcel(String block, String status, Boolean hasAccount, OutputStream outputStream) throws IOException {
+        exportToExcel(block, status, hasAccount, outputStream, NO_PROGRESS);
+    }
 
-        // Data rows
-        int rowNum = 1;
-        for (Member m : members) {
-            Row row = sheet.createRow(rowNum++);
-
-            createStyledCell(row, 0, m.getId().toString(), dataStyle);
-            createStyledCell(row, 1, m.getFullName(), dataStyle);
-            createStyledCell(row, 2, m.getFlatNumber(), dataStyle);
-            createStyledCell(row, 3, m.getAddress(), dataStyle);
-            createStyledCell(row, 4, m.getEmail(), dataStyle);
-            createStyledCell(row, 5, m.getPhoneNumber(), dataStyle);
-            createStyledCell(row, 6, m.getMembershipStatus(), dataStyle);
-            createStyledCell(row, 7, m.isHasUserAccount() ? "Yes" : "No", dataStyle);
-            createStyledCell(row, 8, m.isLeaseholder() ? "Yes" : "No", dataStyle);
-            createStyledCell(row, 9, 
-                m.getRegistrationDate() != null ? m.getRegistrationDate().format(DATE_FORMATTER) : "", 
-                dataStyle);
-        }
+    /**
+     * Export members to Excel, reporting the number of rows written every EXCEL_PROGRESS_ROWS rows
+     */
+    @Transactional(readOnly = true)
+    public void exportToExcel(String block, String status, Boolean hasAccount, OutputStream outputStream,
+                              IntConsumer progress) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(EXCEL_ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
 
-        // Auto-size columns
+        try {
+            Sheet sheet = workbook.createSheet("Members");
 
-        boolean headless = false;
+            // Create header style
+            CellStyle headerStyle = workbook.createCellStyle();
+            Font headerFont = workbook.createFont();
+            headerFont.setBold(true);
+            headerFont.setFontHeightInPoints((short) 12);
+            headerStyle.setFont(headerFont);
+            headerStyle.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
+            headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+            headerStyle.setBorderBottom(BorderStyle.THIN);
+            headerStyle.setBorderTop(BorderStyle.THIN);
+            headerStyle.setBorderLeft(BorderStyle.THIN);
+            headerStyle.setBorderRight(BorderStyle.THIN);
 
-        for (int i = 0; i < headers.length; i++) {
-            // - sheet.autoSizeColumn(i);   // This crashes on railway (headless server) 
+            // Create data style
+            CellStyle dataStyle = workbook.createCellStyle();
+            dataStyle.setBorderBottom(BorderStyle.THIN);
+            dataStyle.setBorderTop(BorderStyle.THIN);
+            dataStyle.setBorderLeft(BorderStyle.THIN);
+            dataStyle.setBorderRight(BorderStyle.THIN);
 
-            // Try to auto-size, but catch if headless
-            try {
-                sheet.autoSizeColumn(i);
-                 if (i == 0) {  // Only log once
-                    logger.debug("AutoSize successful for column " + i + " (desktop environment)" );
-                }   
-            } catch (HeadlessException | UnsatisfiedLinkError | NoClassDefFoundError e) {
-                // Headless server - use fixed width instead
-                logger.info("AutoSize not available (headless), using fixed width");
-                sheet.setColumnWidth(i, 20 * 256);
+            // Header row - widths start at the header lengths (bold text, so a little extra)
+            int[] maxLengths = new int[EXCEL_HEADERS.length];
+            Row headerRow = sheet.createRow(0);
+            for (int i = 0; i < EXCEL_HEADERS.length; i++) {
+                Cell cell = headerRow.createCell(i);
+                cell.setCellValue(EXCEL_HEADERS[i]);
+                cell.setCellStyle(headerStyle);
+                maxLengths[i] = EXCEL_HEADERS[i].length() + 2;
             }
 
-            // Add a bit of padding
-            sheet.setColumnWidth(i, sheet.getColumnWidth(i) + 500);
-        }
+            // Data rows
+            String[] values = new String[EXCEL_HEADERS.length];
+            int rowNum = 1;
+            try (Stream<MemberRepository.MemberExportRow> rows = streamMembers(block, status, hasAccount)) {
+                Iterator<MemberRepository.MemberExportRow> it = rows.iterator();
+                while (it.hasNext()) {
+                    MemberRepository.MemberExportRow m = it.next();
+                    values[0] = m.getId().toString();
+                    values[1] = m.getFullName();
+                    values[2] = m.getFlatNumber();
+                    values[3] = m.getAddress();
+                    values[4] = m.getEmail();
+                    values[5] = m.getPhoneNumber();
+                    values[6] = m.getMembershipStatus();
+                    values[7] = m.getHasUserAccount() ? "Yes" : "No";
+                    values[8] = m.getLeaseholder() ? "Yes" : "No";
+                    values[9] = m.getRegistrationDate() != null ? m.getRegistrationDate().format(DATE_FORMATTER) : "";
+
+                    Row row = sheet.createRow(rowNum++);
+                    for (int i = 0; i < values.length; i++) {
+                        createStyledCell(row, i, values[i], dataStyle);
+                        if (values[i] != null && values[i].length() > maxLengths[i]) {
+                            maxLengths[i] = values[i].length();
+                        }
+                    }
+                    if ((rowNum - 1) % EXCEL_PROGRESS_ROWS == 0) {
+                        progress.accept(rowNum - 1);
+                    }
+                }
+            }
+
+            // Column widths are in 1/256ths of a character, plus a bit of padding
+            for (int i = 0; i < maxLengths.length; i++) {
+                sheet.setColumnWidth(i, Math.min(maxLengths[i] + 2, EXCEL_MAX_COLUMN_CHARS) * 256);
+            }
 
-        // Write to output stream
-        workbook.write(outputStream);
-        workbook.close();
+            // Write to output stream
+            workbook.write(outputStream);
+            progress.accept(rowNum - 1);
+            logger.debug("Excel export written: {} row(s)", rowNum - 1);
+        } finally {
+            workbook.close();
+            // Delete the temp files backing the flushed rows
+            workbook.dispose();
+        }
     }
 
     /**
@@ -155,19 +220,68 @@ public class MemberExportService {
         cell.setCellStyle(style);
     }
 
+    // Cursor over the export rows - filters normalised as in MemberSpecifications (empty = any)
+    private Stream<MemberRepository.MemberExportRow> streamMembers(String block, String status, Boolean hasAccount) {
+        return memberRepository.streamForExport(blockFilter(block), statusFilter(status), hasAccount);
+    }
+
+    private String blockFilter(String block) {
+        return block == null || block.isEmpty() ? null : block.toLowerCase();
+    }
+
+    private String statusFilter(String status) {
+        return status == null || status.isEmpty() ? null : status;
+    }
+
+    // One CSV line, appended straight into the buffer
+    private void appendCsvRow(StringBuilder buffer, MemberRepository.MemberExportRow m) {
+        buffer.append(m.getId()).append(',');
+        appendCsvValue(buffer, m.getFullName());
+        buffer.append(',');
+        appendCsvValue(buffer, m.getFlatNumber());
+        buffer.append(',');
+        appendCsvValue(buffer, m.getAddress());
+        buffer.append(',');
+        appendCsvValue(buffer, m.getEmail());
+        buffer.append(',');
+        appendCsvValue(buffer, m.getPhoneNumber());
+        buffer.append(',');
+        buffer.append(m.getMembershipStatus()).append(',');
+        buffer.append(m.getHasUserAccount() ? "Yes" : "No").append(',');
+        buffer.append(m.getLeaseholder() ? "Yes" : "No").append(',');
+        if (m.getRegistrationDate() != null) {
+            DATE_FORMATTER.formatTo(m.getRegistrationDate(), buffer);
+        }
+        buffer.append('\n');
+    }
+
     /**
      * Escape CSV special characters
+     * Values containing a comma, quote or line break are wrapped in quotes with internal quotes doubled
      */
-    private String escapeCsv(String value) {
+    private void appendCsvValue(StringBuilder buffer, String value) {
         if (value == null) {
-            return "";
+            return;
         }
-        
-        // If contains comma, quote, or newline, wrap in quotes and escape internal quotes
-        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
-            return "\"" + value.replace("\"", "\"\"") + "\"";
+
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            buffer.append(value);
+            return;
+        }
+
+        buffer.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                buffer.append('"');
+            }
+            buffer.append(c);
         }
-        
-        return value;
+        buffer.append('"');
     }
 }
@@ -1,12 +1,17 @@
 package com.willows.rta.service;
 
 import com.willows.rta.model.Member;
+import com.willows.rta.repository.BallotRepository;
 import com.willows.rta.repository.MemberRepository;
+import com.willows.rta.repository.MemberSpecifications;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.util.List;
 import java.util.Optional;
@@ -15,19 +20,43 @@ import java.util.Optional;
 public class MemberService {
 
     private final MemberRepository memberRepository;
+    private final BlockService blockService;
+    private final AnalyticsSnapshotService analyticsSnapshotService;
+    private final MembershipTimeSeriesService membershipTimeSeriesService;
+    private final ExportJobService exportJobService;
+    private final DashboardCounterService dashboardCounterService;
+    private final BallotRepository ballotRepository;
 
     @Autowired
-    public MemberService(MemberRepository memberRepository) {
+    public MemberService(MemberRepository memberRepository, BlockService blockService,
+                         AnalyticsSnapshotService analyticsSnapshotService,
+                         MembershipTimeSeriesService membershipTimeSeriesService,
+                         ExportJobService exportJobService,
+                         DashboardCounterService dashboardCounterService,
+                         BallotRepository ballotRepository) {
         this.memberRepository = memberRepository;
+        this.blockService = blockService;
+        this.analyticsSnapshotService = analyticsSnapshotService;
+        this.membershipTimeSeriesService = membershipTimeSeriesService;
+        this.exportJobService = exportJobService;
+        this.dashboardCounterService = dashboardCounterService;
+        this.ballotRepository = ballotRepository;
     }
 
     // Register a new member
+    @Transactional
     public Member registerMember(Member member) {
         // Check if email already exists
         if (memberRepository.existsByEmail(member.getEmail())) {
             throw new RuntimeException("A member with this email already exists");
         }
-        return memberRepository.save(member);
+        member.setBlock(blockService.matchBlock(member.getFlatNumber(), member.getAddress()));
+        Member saved = memberRepository.save(member);
+        analyticsSnapshotService.memberChanged(null, null, blockIdOf(saved), saved.getMembershipStatus());
+        membershipTimeSeriesService.recordRegistration(blockIdOf(saved), saved.getRegistrationDate());
+        exportJobService.dataChanged();
+        dashboardCounterService.invalidate();
+        return saved;
     }
 
     // Check if email exists
@@ -56,9 +85,11 @@ public class MemberService {
     }
 
     // Update member details
+    @Transactional
     public Member updateMember(Long id, Member memberDetails) {
         Member member = memberRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Member not found with id: " + id));
+        Long oldBlockId = blockIdOf(member);
         
         member.setFullName(memberDetails.getFullName());
         member.setFlatNumber(memberDetails.getFlatNumber());
@@ -67,20 +98,33 @@ public class MemberService {
         member.setPhoneNumber(memberDetails.getPhoneNumber());
         member.setLeaseholder(memberDetails.isLeaseholder());
         member.setPreferredCommunication(memberDetails.getPreferredCommunication());
+        member.setBlock(blockService.matchBlock(member.getFlatNumber(), member.getAddress()));
         
-        return memberRepository.save(member);
+        Member saved = memberRepository.save(member);
+        analyticsSnapshotService.memberChanged(oldBlockId, saved.getMembershipStatus(),
+                blockIdOf(saved), saved.getMembershipStatus());
+        exportJobService.dataChanged();
+        return saved;
     }
 
     // Update membership status
+    @Transactional
     public Member updateMembershipStatus(Long id, String status) {
         Member member = memberRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Member not found with id: " + id));
         
+        String oldStatus = member.getMembershipStatus();
         member.setMembershipStatus(status);
-        return memberRepository.save(member);
+        Member saved = memberRepository.save(member);
+        analyticsSnapshotService.memberChanged(blockIdOf(saved), oldStatus, blockIdOf(saved), status);
+        membershipTimeSeriesService.recordStatusChange(blockIdOf(saved), oldStatus, status);
+        exportJobService.dataChanged();
+        dashboardCounterService.invalidate();
+        return saved;
     }
 
     // Delete member
+    @Transactional
     public void deleteMember(Long id) {
         Member member = memberRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Member not found with id: " + id));
@@ -88,7 +132,12 @@ public class MemberService {
         // If member has a user account, we need to delete it first due to foreign key constraint
         // Note: This will be handled in the service layer by finding and deleting the user
         
+        // Ballots have no foreign key to the member, so remove them in the same transaction
+        ballotRepository.deleteAllByMemberId(id);
         memberRepository.deleteById(id);
+        analyticsSnapshotService.memberChanged(blockIdOf(member), member.getMembershipStatus(), null, null);
+        exportJobService.dataChanged();
+        dashboardCounterService.invalidate();
     }
 
     // Get total member count
@@ -98,7 +147,7 @@ public class MemberService {
 
     // Get active member count
     public long getActiveMemberCount() {
-        return memberRepository.findByMembershipStatus("ACTIVE").size();
+        return memberRepository.countByMembershipStatus("ACTIVE");
     }
 
     // Update member account creation status
@@ -106,16 +155,16 @@ public class MemberService {
         Member member = memberRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Member not found with id: " + id));
         
+        boolean accountCreated = hasAccount && !member.isHasUserAccount();
         member.setHasUserAccount(hasAccount);
         member.setAccountCreationMethod(creationMethod);
-        return memberRepository.save(member);
-    }
-
-    // Get members without user accounts
-    public List<Member> getMembersWithoutAccounts() {
-        return memberRepository.findAll().stream()
-                .filter(m -> !m.isHasUserAccount())
-                .toList();
+        Member saved = memberRepository.save(member);
+        if (accountCreated) {
+            membershipTimeSeriesService.recordAccountCreated(blockIdOf(saved));
+        }
+        exportJobService.dataChanged();
+        dashboardCounterService.invalidate();
+        return saved;
     }
 
     // Get members by status
@@ -128,40 +177,27 @@ public class MemberService {
         return memberRepository.findByMembershipStatus(status, pageable);
     }
 
-   // Get filtered members for export
+    // Get filtered members for export (filters applied in the database)
     public List<Member> getFilteredMembers(String block, String status, Boolean hasAccount) {
-        List<Member> allMembers = memberRepository.findAll();
-        
-        return allMembers.stream()
-            .filter(m -> {
-                // Filter by status if provided
-                if (status != null && !status.isEmpty()) {
-                    if (!status.equals(m.getMembershipStatus())) {
-                        return false;
-                    }
-                }
-                
-                // Filter by account status if provided
-                if (hasAccount != null) {
-                    if (hasAccount != m.isHasUserAccount()) {
-                        return false;
-                    }
-                }
-                
-                // Filter by block if provided
-                if (block != null && !block.isEmpty()) {
-                    String flatNum = m.getFlatNumber() != null ? m.getFlatNumber().toLowerCase() : "";
-                    String address = m.getAddress() != null ? m.getAddress().toLowerCase() : "";
-                    String blockLower = block.toLowerCase();
-                    
-                    if (!flatNum.contains(blockLower) && !address.contains(blockLower)) {
-                        return false;
-                    }
-                }
-                
-                return true;
-            })
-            .collect(java.util.stream.Collectors.toList());
+        return memberRepository.findAll(memberFilter(block, status, hasAccount, null), Sort.by("id"));
+    }
+
+    /**
+     * Search members with optional block, status, account and free-text filters (paginated)
+     */
+    public Page<Member> searchMembers(String block, String status, Boolean hasAccount, String search, Pageable pageable) {
+        return memberRepository.findAll(memberFilter(block, status, hasAccount, search), pageable);
+    }
+
+    private Long blockIdOf(Member member) {
+        return member.getBlock() != null ? member.getBlock().getId() : null;
+    }
+
+    private Specification<Member> memberFilter(String block, String status, Boolean hasAccount, String search) {
+        return Specification.where(MemberSpecifications.hasStatus(status))
+                .and(MemberSpecifications.hasAccount(hasAccount))
+                .and(MemberSpecifications.inBlock(block))
+                .and(MemberSpecifications.matchesText(search));
     }
 
     /**
@@ -173,4 +209,11 @@ public class MemberService {
     public Page<Member> findAll(Pageable pageable) {
         return memberRepository.findAll(pageable);
     }
+
+    /**
+     * Get a page of members together with their login account status (single query)
+     */
+    public Page<MemberRepository.MemberWithAccount> findAllWithAccount(Pageable pageable) {
+        return memberRepository.findAllWithAccount(pageable);
+    }
 }
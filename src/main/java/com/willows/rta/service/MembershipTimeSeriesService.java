@@ -0,0 +1,198 @@
+package com.willows.rta.service;
+
+import com.willows.rta.model.MembershipDailyStats;
+import com.willows.rta.repository.MemberRepository;
+import com.willows.rta.repository.MembershipDailyStatsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Membership growth over time, kept as daily per-block buckets
+ * MemberService records each registration, status change and account creation into
+ * the day's bucket; charts read the buckets for a date range and never touch members.
+ */
+@Service
+public class MembershipTimeSeriesService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MembershipTimeSeriesService.class);
+
+    private static final int BACKFILL_BATCH_SIZE = 500;
+    private static final int MAX_RANGE_DAYS = 731;
+
+    private final MembershipDailyStatsRepository dailyStatsRepository;
+    private final MemberRepository memberRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public MembershipTimeSeriesService(MembershipDailyStatsRepository dailyStatsRepository,
+                                       MemberRepository memberRepository,
+                                       PlatformTransactionManager transactionManager) {
+        this.dailyStatsRepository = dailyStatsRepository;
+        this.memberRepository = memberRepository;
+        // Always a fresh transaction - bucket updates run from afterCommit, where the
+        // finished transaction's resources are still bound to the thread
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Record a new registration
+     */
+    public void recordRegistration(Long blockId, LocalDateTime registeredAt) {
+        record(registeredAt != null ? registeredAt.toLocalDate() : LocalDate.now(), blockId, 1, 0, 0, 0);
+    }
+
+    /**
+     * Record a membership status change (only ACTIVE and SUSPENDED are tracked)
+     */
+    public void recordStatusChange(Long blockId, String oldStatus, String newStatus) {
+        if (newStatus == null || newStatus.equals(oldStatus)) {
+            return;
+        }
+        if ("ACTIVE".equals(newStatus)) {
+            record(LocalDate.now(), blockId, 0, 1, 0, 0);
+        } else if ("SUSPENDED".equals(newStatus)) {
+            record(LocalDate.now(), blockId, 0, 0, 1, 0);
+        }
+    }
+
+    /**
+     * Record a login account being created for a member
+     */
+    public void recordAccountCreated(Long blockId) {
+        record(LocalDate.now(), blockId, 0, 0, 0, 1);
+    }
+
+    /**
+     * Daily series for a date range (inclusive), one point per day with gaps filled with zeros
+     * blockId null = all blocks
+     */
+    public List<DailyPoint> getDailySeries(LocalDate from, LocalDate to, Long blockId) {
+        if (to.isBefore(from)) {
+            throw new RuntimeException("Invalid date range");
+        }
+        if (from.plusDays(MAX_RANGE_DAYS).isBefore(to)) {
+            from = to.minusDays(MAX_RANGE_DAYS);
+        }
+
+        List<MembershipDailyStatsRepository.DailyTotals> rows = blockId == null
+                ? dailyStatsRepository.findDailyTotals(from, to)
+                : dailyStatsRepository.findDailyTotalsForBlock(blockId, from, to);
+
+        Map<LocalDate, MembershipDailyStatsRepository.DailyTotals> byDay = new HashMap<>();
+        for (MembershipDailyStatsRepository.DailyTotals row : rows) {
+            byDay.put(row.getDay(), row);
+        }
+
+        List<DailyPoint> series = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            MembershipDailyStatsRepository.DailyTotals row = byDay.get(day);
+            series.add(row == null
+                    ? new DailyPoint(day, 0, 0, 0, 0)
+                    : new DailyPoint(day, row.getRegistrations(), row.getActivations(),
+                                     row.getSuspensions(), row.getAccountsCreated()));
+        }
+        return series;
+    }
+
+    /**
+     * Populate registration buckets from Member.registrationDate if the table is empty
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (dailyStatsRepository.count() == 0 && memberRepository.count() > 0) {
+            backfillRegistrations();
+        }
+    }
+
+    /**
+     * Rebuild registration counts from the members table
+     * Reads members in keyset batches of BACKFILL_BATCH_SIZE (three columns each), so only
+     * the per-day counts are held in memory; setting rather than adding makes it safe to re-run
+     */
+    public void backfillRegistrations() {
+        Map<LocalDate, Map<Long, Integer>> counts = new HashMap<>();
+        long lastId = 0;
+        int scanned = 0;
+
+        while (true) {
+            List<MemberRepository.MemberRegistration> batch =
+                    memberRepository.findRegistrationsAfter(lastId, PageRequest.of(0, BACKFILL_BATCH_SIZE));
+            for (MemberRepository.MemberRegistration row : batch) {
+                if (row.getRegistrationDate() != null) {
+                    counts.computeIfAbsent(row.getRegistrationDate().toLocalDate(), day -> new HashMap<>())
+                            .merge(bucketBlock(row.getBlockId()), 1, Integer::sum);
+                }
+                lastId = row.getId();
+            }
+            scanned += batch.size();
+            if (batch.size() < BACKFILL_BATCH_SIZE) {
+                break;
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> counts.forEach((day, byBlock) -> byBlock.forEach(
+                (blockId, count) -> dailyStatsRepository.setRegistrations(day, blockId, count))));
+        logger.info("Membership time series backfilled: {} member(s) over {} day(s)", scanned, counts.size());
+    }
+
+    // Bucket updates are applied once the member change commits
+    private void record(LocalDate day, Long blockId, int registrations, int activations,
+                        int suspensions, int accountsCreated) {
+        Runnable update = () -> {
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        dailyStatsRepository.addToBucket(day, bucketBlock(blockId),
+                                registrations, activations, suspensions, accountsCreated));
+            } catch (RuntimeException e) {
+                // Charts are secondary - never fail the member change over them
+                logger.error("Failed to record membership activity for {}", day, e);
+            }
+        };
+        TransactionCallbacks.afterCommit(update);
+    }
+
+    private Long bucketBlock(Long blockId) {
+        return blockId != null ? blockId : MembershipDailyStats.NO_BLOCK;
+    }
+
+    /**
+     * Inner class for one day of the chart series
+     */
+    public static class DailyPoint {
+        private LocalDate day;
+        private long registrations;
+        private long activations;
+        private long suspensions;
+        private long accountsCreated;
+
+        public DailyPoint(LocalDate day, long registrations, long activations, long suspensions, long accountsCreated) {
+            this.day = day;
+            this.registrations = registrations;
+            this.activations = activations;
+            this.suspensions = suspensions;
+            this.accountsCreated = accountsCreated;
+        }
+
+        public LocalDate getDay() { return day; }
+        public long getRegistrations() { return registrations; }
+        public long getActivations() { return activations; }
+        public long getSuspensions() { return suspensions; }
+        public long getAccountsCreated() { return accountsCreated; }
+    }
+}
@@ -1,52 +1,60 @@
 package com.willows.rta.service;
 
-import com.willows.rta.model.OtpCode;
-import com.willows.rta.repository.OtpRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.SecureRandom;
-import java.time.LocalDateTime;
-import java.util.Optional;
+import java.util.HexFormat;
 
 @Service
 public class OtpService {
 
-    private final OtpRepository otpRepository;
+    private final OtpStore otpStore;
     private final ResendEmailService resendEmailService;
+    private final SecretKeySpec hashKey;
+    private final int maxAttempts;
+    private final SecureRandom random = new SecureRandom();
     private static final int OTP_VALIDITY_MINUTES = 10;
     private static final int OTP_LENGTH = 6;
 
     @Autowired
-    public OtpService(OtpRepository otpRepository, ResendEmailService resendEmailService) {
-        this.otpRepository = otpRepository;
+    public OtpService(OtpStore otpStore, ResendEmailService resendEmailService,
+                      @Value("${app.otp.hash-secret:}") String hashSecret,
+                      @Value("${app.otp.max-attempts:5}") int maxAttempts) {
+        this.otpStore = otpStore;
         this.resendEmailService = resendEmailService;
+        this.maxAttempts = maxAttempts;
+
+        byte[] secret;
+        if (hashSecret == null || hashSecret.isBlank()) {
+            // A shared store needs the same secret on every instance, or codes fail whenever
+            // another instance handles the verify - refuse to start rather than half-work
+            if (otpStore.isShared()) {
+                throw new IllegalStateException(
+                        "app.otp.hash-secret must be set when OTP codes are kept in a shared store");
+            }
+            secret = new byte[32];
+            random.nextBytes(secret);
+        } else {
+            secret = hashSecret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.hashKey = new SecretKeySpec(secret, "HmacSHA256");
     }
 
     /**
      * Generate and send OTP code to user's email
+     * Only a keyed hash of the code is stored; any earlier code for the user is replaced
      */
-    @Transactional
     public String generateAndSendOtp(String username, String email) {
-        // Invalidate any existing unused OTPs for this user
-        invalidateExistingOtps(username);
-
         // Generate new 6-digit OTP
         String otpCode = generateOtpCode();
 
-        // LOG IMMEDIATELY (before async call)
-            //System.out.println("========================================");
-            //System.out.println("🔐 OTP GENERATED FOR LOGIN");
-            //System.out.println("Username: " + username);
-            //System.out.println("Email: " + email);
-            //System.out.println("OTP Code: " + otpCode);
-            //System.out.println("Valid for: " + OTP_VALIDITY_MINUTES + " minutes");
-            //System.out.println("========================================");
-
-        // Save to database
-        OtpCode otp = new OtpCode(username, otpCode, OTP_VALIDITY_MINUTES);
-        otpRepository.save(otp);
+        otpStore.issue(username, hashOtp(username, otpCode), OTP_VALIDITY_MINUTES);
 
         // Send via email (async)
         resendEmailService.sendOtpEmail(email, otpCode);
@@ -56,60 +64,49 @@ public class OtpService {
 
     /**
      * Validate OTP code
+     * A correct code can be used once; after max-attempts wrong codes the OTP is spent
      */
-    @Transactional
     public boolean validateOtp(String username, String code) {
-        Optional<OtpCode> otpOpt = otpRepository.findTopByUsernameAndUsedFalseOrderByCreatedAtDesc(username);
-
-        if (otpOpt.isEmpty()) {
+        String entered = code != null ? code.trim() : "";
+        if (entered.length() != OTP_LENGTH) {
             return false;
         }
-
-        OtpCode otp = otpOpt.get();
-
-        // Check if code matches and is still valid
-        if (otp.getCode().equals(code) && otp.isValid()) {
-            // Mark as used
-            otp.setUsed(true);
-            otpRepository.save(otp);
-            return true;
-        }
-
-        return false;
+        return otpStore.verify(username, hashOtp(username, entered), maxAttempts);
     }
 
     /**
-     * Check if user has a valid unused OTP
+     * Invalidate the user's outstanding OTP
      */
-    public boolean hasValidOtp(String username) {
-        Optional<OtpCode> otpOpt = otpRepository.findTopByUsernameAndUsedFalseOrderByCreatedAtDesc(username);
-        return otpOpt.isPresent() && otpOpt.get().isValid();
-    }
-
-    /**
-     * Invalidate all unused OTPs for a user
-     */
-    @Transactional
     public void invalidateExistingOtps(String username) {
-        var otps = otpRepository.findByUsernameAndUsedFalse(username);
-        otps.forEach(otp -> otp.setUsed(true));
-        otpRepository.saveAll(otps);
+        otpStore.invalidate(username);
     }
 
     /**
      * Generate random 6-digit OTP code
      */
     private String generateOtpCode() {
-        SecureRandom random = new SecureRandom();
         int code = 100000 + random.nextInt(900000); // 6-digit number
         return String.valueOf(code);
     }
 
+    // HMAC-SHA256 of username + code, hex encoded - a 6-digit code alone is trivial to brute-force
+    private String hashOtp(String username, String code) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(hashKey);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return HexFormat.of().formatHex(mac.doFinal(code.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Could not hash OTP code", e);
+        }
+    }
+
     /**
-     * Clean up expired OTP codes (should be run periodically)
+     * Clean up expired and used OTP codes (run by MaintenanceScheduler)
+     * Returns the number of codes removed
      */
-    @Transactional
-    public void cleanupExpiredOtps() {
-        otpRepository.deleteByExpiryTimeBefore(LocalDateTime.now());
+    public int cleanupExpiredOtps() {
+        return otpStore.purgeExpired();
     }
 }
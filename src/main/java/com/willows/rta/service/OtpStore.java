@@ -0,0 +1,36 @@
+package com.willows.rta.service;
+
+/**
+ * Where issued OTP codes are kept until they are used or expire
+ * Codes arrive already hashed by OtpService; a store never sees the plain code.
+ * Selected with app.otp.store: "memory" (default, single node) or "database"
+ * (otp_codes table, for several instances behind one login page).
+ */
+public interface OtpStore {
+
+    /**
+     * Store a new code for the user, replacing any code issued before
+     */
+    void issue(String username, String codeHash, int validityMinutes);
+
+    /**
+     * Check a code: true consumes it; a wrong code counts towards maxAttempts,
+     * after which the code is spent
+     */
+    boolean verify(String username, String codeHash, int maxAttempts);
+
+    /**
+     * Drop the user's outstanding code
+     */
+    void invalidate(String username);
+
+    /**
+     * Remove expired and spent codes - returns the number removed
+     */
+    int purgeExpired();
+
+    /**
+     * Whether codes are visible to every instance (needs a shared hash secret)
+     */
+    boolean isShared();
+}
@@ -0,0 +1,143 @@
+package com.willows.rta.service;
+
+import com.willows.rta.model.Poll;
+import com.willows.rta.repository.PollRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Closes polls at their exact deadline
+ * One timer per ACTIVE poll with a closeAt, registered when the poll is published
+ * and for every active poll at startup (past deadlines fire straight away).
+ * Timers only make closing prompt: they are per instance and lost on restart,
+ * so VotingService still rejects ballots past closeAt and the maintenance
+ * sweep closes anything a timer missed.
+ * Timers run on their own scheduler thread so a long @Scheduled job on the
+ * shared scheduler cannot hold a deadline back.
+ */
+@Service
+public class PollDeadlineScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(PollDeadlineScheduler.class);
+
+    private final PollRepository pollRepository;
+    private final PollTallyCache pollTallyCache;
+    private final ThreadPoolTaskScheduler taskScheduler;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Long, DeadlineTimer> timers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PollDeadlineScheduler(PollRepository pollRepository,
+                                 PollTallyCache pollTallyCache,
+                                 TransactionTemplate transactionTemplate) {
+        this.pollRepository = pollRepository;
+        this.pollTallyCache = pollTallyCache;
+        this.transactionTemplate = transactionTemplate;
+        this.taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.setPoolSize(1);
+        taskScheduler.setThreadNamePrefix("poll-deadline-");
+        taskScheduler.setRemoveOnCancelPolicy(true);
+        taskScheduler.initialize();
+    }
+
+    /**
+     * Register timers for all active polls once the app has started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void registerActivePolls() {
+        List<Poll> polls = pollRepository.findActivePollsWithDeadline();
+        for (Poll poll : polls) {
+            schedule(poll.getId(), poll.getCloseAt());
+        }
+        logger.info("Registered deadline timers for {} active poll(s)", polls.size());
+    }
+
+    /**
+     * Register (or replace) a poll's deadline timer once the surrounding transaction commits
+     */
+    public void register(Long pollId, LocalDateTime closeAt) {
+        TransactionCallbacks.afterCommit(() -> {
+            if (closeAt == null) {
+                cancelTimer(pollId);
+            } else {
+                schedule(pollId, closeAt);
+            }
+        });
+    }
+
+    /**
+     * Drop a poll's deadline timer (closed manually, reopened or deleted)
+     */
+    public void cancel(Long pollId) {
+        TransactionCallbacks.afterCommit(() -> cancelTimer(pollId));
+    }
+
+    /**
+     * Number of pending deadline timers
+     */
+    public int getPendingCount() {
+        return timers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        taskScheduler.shutdown();
+    }
+
+    // Synchronized with cancelTimer so a timer is never seen before its future is set
+    private synchronized void schedule(Long pollId, LocalDateTime closeAt) {
+        DeadlineTimer timer = new DeadlineTimer();
+        timer.future = taskScheduler.schedule(() -> fire(pollId, timer),
+                closeAt.atZone(ZoneId.systemDefault()).toInstant());
+        DeadlineTimer previous = timers.put(pollId, timer);
+        if (previous != null) {
+            previous.future.cancel(false);
+        }
+    }
+
+    private synchronized void cancelTimer(Long pollId) {
+        DeadlineTimer timer = timers.remove(pollId);
+        if (timer != null) {
+            timer.future.cancel(false);
+        }
+    }
+
+    private void fire(Long pollId, DeadlineTimer timer) {
+        // Only forget this timer - a replacement registered meanwhile stays
+        timers.remove(pollId, timer);
+        try {
+            // No-op if the poll was closed meanwhile (here or on another instance) or its deadline moved
+            Integer closed = transactionTemplate.execute(status ->
+                    pollRepository.closeIfDeadlinePassed(pollId, LocalDateTime.now()));
+            pollTallyCache.evict(pollId);
+            if (closed != null && closed > 0) {
+                logger.info("Poll {} closed at its deadline", pollId);
+            }
+        } catch (RuntimeException e) {
+            // The maintenance sweep closes it on its next run
+            logger.error("Failed to close poll {} at its deadline", pollId, e);
+        }
+    }
+
+    /**
+     * One registered deadline
+     */
+    private static class DeadlineTimer {
+        private ScheduledFuture<?> future;
+    }
+}
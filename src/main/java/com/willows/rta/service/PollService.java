@@ -3,6 +3,7 @@ package com.willows.rta.service;
 import com.willows.rta.model.Poll;
 import com.willows.rta.model.PollOption;
 import com.willows.rta.model.Vote;
+import com.willows.rta.repository.BallotRepository;
 import com.willows.rta.repository.PollRepository;
 import com.willows.rta.repository.MemberRepository;
 import com.willows.rta.repository.PollOptionRepository;
@@ -27,16 +28,25 @@ public class PollService {
     private final PollOptionRepository pollOptionRepository;
     private final VoteRepository voteRepository;
     private final MemberRepository memberRepository;
+    private final PollTallyCache pollTallyCache;
+    private final PollDeadlineScheduler pollDeadlineScheduler;
+    private final BallotRepository ballotRepository;
 
 @Autowired
 public PollService(PollRepository pollRepository, 
                   PollOptionRepository pollOptionRepository,
                   VoteRepository voteRepository,
-                  MemberRepository memberRepository) {
+                  MemberRepository memberRepository,
+                  PollTallyCache pollTallyCache,
+                  PollDeadlineScheduler pollDeadlineScheduler,
+                  BallotRepository ballotRepository) {
     this.pollRepository = pollRepository;
     this.pollOptionRepository = pollOptionRepository;
     this.voteRepository = voteRepository;
     this.memberRepository = memberRepository;
+    this.pollTallyCache = pollTallyCache;
+    this.pollDeadlineScheduler = pollDeadlineScheduler;
+    this.ballotRepository = ballotRepository;
 }
 
     /**
@@ -156,6 +166,7 @@ public PollService(PollRepository pollRepository,
         
         poll.setStatus("ACTIVE");
         poll.setOpenAt(LocalDateTime.now());
+        pollDeadlineScheduler.register(pollId, poll.getCloseAt());
         
         return pollRepository.save(poll);
     }
@@ -174,6 +185,8 @@ public PollService(PollRepository pollRepository,
         
         poll.setStatus("CLOSED");
         poll.setClosedManually(true);
+        pollTallyCache.evict(pollId);
+        pollDeadlineScheduler.cancel(pollId);
         
         return pollRepository.save(poll);
     }
@@ -193,6 +206,8 @@ public PollService(PollRepository pollRepository,
         poll.setStatus("ACTIVE");
         poll.setClosedManually(false);
         poll.setCloseAt(null); // Remove deadline
+        pollTallyCache.evict(pollId);
+        pollDeadlineScheduler.cancel(pollId);
         
         return pollRepository.save(poll);
     }
@@ -205,8 +220,12 @@ public PollService(PollRepository pollRepository,
         Poll poll = pollRepository.findById(pollId)
                 .orElseThrow(() -> new RuntimeException("Poll not found"));
         
+        pollTallyCache.evict(pollId);
+        pollDeadlineScheduler.cancel(pollId);
+        
         // Can delete draft polls anytime
         if ("DRAFT".equals(poll.getStatus())) {
+            ballotRepository.deleteAllByPollId(pollId);
             pollRepository.deleteById(pollId);
             return;
         }
@@ -217,6 +236,8 @@ public PollService(PollRepository pollRepository,
             if (voteCount > 0) {
                 throw new RuntimeException("Cannot delete poll with votes. Close it instead.");
             }
+            // Ballots have no foreign key to the poll, so remove them in the same transaction
+            ballotRepository.deleteAllByPollId(pollId);
             pollRepository.deleteById(pollId);
             return;
         }
@@ -226,17 +247,21 @@ public PollService(PollRepository pollRepository,
 
     /**
      * Auto-close expired polls
-     * Called by scheduled task
+     * Safety-net sweep (PollDeadlineScheduler closes polls at their deadline) - returns the number of polls closed
      */
     @Transactional
-    public void autoCloseExpiredPolls() {
-        List<Poll> expiredPolls = pollRepository.findExpiredActivePolls(LocalDateTime.now());
+    public int autoCloseExpiredPolls() {
+        List<Long> expiredIds = pollRepository.findExpiredActivePollIds(LocalDateTime.now());
+        if (expiredIds.isEmpty()) {
+            return 0;
+        }
         
-        for (Poll poll : expiredPolls) {
-            poll.setStatus("CLOSED");
-            poll.setClosedManually(false);
-            pollRepository.save(poll);
+        int closed = pollRepository.closeActivePolls(expiredIds);
+        for (Long pollId : expiredIds) {
+            pollTallyCache.evict(pollId);
+            pollDeadlineScheduler.cancel(pollId);
         }
+        return closed;
     }
 
     /**
@@ -246,7 +271,9 @@ public PollService(PollRepository pollRepository,
         Poll poll = pollRepository.findById(pollId)
                 .orElseThrow(() -> new RuntimeException("Poll not found"));
         
-        long totalVotes = voteRepository.countByPollId(pollId);
+        long totalVotes = poll.isActive()
+                ? pollTallyCache.getTally(pollId).getTotalVotes()
+                : voteRepository.countByPollId(pollId);
         long totalMembers = getTotalActiveMembers(); // You'll need to inject MemberRepository
         
         return new PollStats(
@@ -0,0 +1,252 @@
+package com.willows.rta.service;
+
+import com.willows.rta.model.Poll;
+import com.willows.rta.model.PollOption;
+import com.willows.rta.repository.PollOptionRepository;
+import com.willows.rta.repository.PollRepository;
+import com.willows.rta.repository.VoteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory vote tallies for ACTIVE polls
+ * Kept current by VotingService.castVote and evicted when a poll closes,
+ * so results pages read counts from memory instead of the votes table.
+ * A tally is loaded outside the map and only installed if no ballot for the poll
+ * was committing while it loaded, so a vote is never counted both by the load
+ * and by the increment applied after its commit. A poll's guard is dropped with
+ * its tally once no ballot is in flight, so only polls in use keep one.
+ */
+@Service
+public class PollTallyCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PollTallyCache.class);
+
+    private final PollRepository pollRepository;
+    private final PollOptionRepository pollOptionRepository;
+    private final VoteRepository voteRepository;
+
+    private final Map<Long, PollTally> tallies = new ConcurrentHashMap<>();
+    // Per poll: ballots between beforeCommit and their increment, and a counter bumped on every change
+    // (a load only installs if its guard is still the poll's current one)
+    private final Map<Long, LoadGuard> guards = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PollTallyCache(PollRepository pollRepository,
+                          PollOptionRepository pollOptionRepository,
+                          VoteRepository voteRepository) {
+        this.pollRepository = pollRepository;
+        this.pollOptionRepository = pollOptionRepository;
+        this.voteRepository = voteRepository;
+    }
+
+    /**
+     * Build tallies for all active polls once the app has started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<Poll> activePolls = pollRepository.findByStatusOrderByOpenAtDesc("ACTIVE");
+        for (Poll poll : activePolls) {
+            getTally(poll.getId());
+        }
+        logger.info("Poll tally cache warmed for {} active poll(s)", activePolls.size());
+    }
+
+    /**
+     * Get the tally for a poll, rebuilding it from the database on a miss
+     */
+    public PollTally getTally(Long pollId) {
+        PollTally cached = tallies.get(pollId);
+        if (cached != null) {
+            return cached;
+        }
+
+        LoadGuard guard = guard(pollId);
+        long generation = guard.generation.get();
+        boolean quiet = guard.inFlight.get() == 0;
+        PollTally loaded = loadTally(pollId);
+
+        // Installed under the map's per-key lock, so it is ordered against increments and evictions
+        PollTally installed = tallies.compute(pollId, (id, current) -> {
+            if (current != null) {
+                return current;
+            }
+            boolean unchanged = quiet && guards.get(id) == guard
+                    && guard.inFlight.get() == 0 && guard.generation.get() == generation;
+            return unchanged ? loaded : null;
+        });
+        return installed != null ? installed : loaded;
+    }
+
+    /**
+     * Apply a ballot to the cached tally once the surrounding transaction commits
+     * previousOptionIds is empty for a first vote, or the replaced options for a revote
+     */
+    public void recordBallot(Long pollId, Collection<Long> previousOptionIds, Collection<Long> newOptionIds) {
+        TransactionCallbacks.register(new TransactionSynchronization() {
+            private LoadGuard guard;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                // From here on the ballot may be visible to a concurrent load; counted under the
+                // map's lock so evict never drops a guard with a ballot in flight
+                guard = guards.compute(pollId, (id, current) -> {
+                    LoadGuard g = current != null ? current : new LoadGuard();
+                    g.inFlight.incrementAndGet();
+                    return g;
+                });
+            }
+
+            @Override
+            public void afterCommit() {
+                apply(pollId, guard, previousOptionIds, newOptionIds);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (guard != null) {
+                    guard.generation.incrementAndGet();
+                    guard.inFlight.decrementAndGet();
+                    if (guard.retired) {
+                        dropGuard(pollId);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Drop a poll's tally (poll closed, reopened or deleted) once the surrounding transaction commits
+     * Its guard goes too - or, if a ballot is still in flight, once the last one completes
+     */
+    public void evict(Long pollId) {
+        TransactionCallbacks.afterCommit(() -> tallies.compute(pollId, (id, tally) -> {
+            LoadGuard guard = guards.get(id);
+            if (guard != null) {
+                guard.generation.incrementAndGet();
+                guard.retired = true;
+                dropGuard(id);
+            }
+            return null;
+        }));
+    }
+
+    private void apply(Long pollId, LoadGuard guard,
+                       Collection<Long> previousOptionIds, Collection<Long> newOptionIds) {
+        tallies.compute(pollId, (id, tally) -> {
+            guard.generation.incrementAndGet();
+            if (tally != null) {
+                tally.applyBallot(previousOptionIds, newOptionIds);
+            }
+            return tally;
+        });
+    }
+
+    private LoadGuard guard(Long pollId) {
+        return guards.computeIfAbsent(pollId, id -> new LoadGuard());
+    }
+
+    // Remove a retired guard unless a ballot is still in flight on it
+    private void dropGuard(Long pollId) {
+        guards.computeIfPresent(pollId, (id, guard) ->
+                guard.retired && guard.inFlight.get() == 0 ? null : guard);
+    }
+
+    private PollTally loadTally(Long pollId) {
+        List<PollOption> options = pollOptionRepository.findByPollIdOrderByDisplayOrder(pollId);
+        PollTally tally = new PollTally(options);
+
+        for (VoteRepository.OptionVoteCount row : voteRepository.countVotesByOption(pollId)) {
+            tally.setVoteCount(row.getOptionId(), row.getVoteCount());
+        }
+        tally.setVoterCount(voteRepository.countDistinctVotersByPollId(pollId));
+
+        return tally;
+    }
+
+    /**
+     * Tracks ballots for one poll so a load that overlapped them is not cached
+     */
+    private static class LoadGuard {
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicLong generation = new AtomicLong();
+        private volatile boolean retired; // Tally evicted - drop the guard once nothing is in flight
+    }
+
+    /**
+     * Vote counters for a single poll
+     * Option counts are plain longs indexed by option position; all access is
+     * synchronized on the tally so a ballot is applied atomically
+     */
+    public static class PollTally {
+        private final Map<Long, Integer> optionIndex = new HashMap<>();
+        private final long[] optionCounts;
+        private long totalVotes;
+        private long voterCount;
+
+        PollTally(List<PollOption> options) {
+            this.optionCounts = new long[options.size()];
+            for (int i = 0; i < options.size(); i++) {
+                optionIndex.put(options.get(i).getId(), i);
+            }
+        }
+
+        synchronized void setVoteCount(Long optionId, long count) {
+            Integer index = optionIndex.get(optionId);
+            if (index != null) {
+                totalVotes += count - optionCounts[index];
+                optionCounts[index] = count;
+            }
+        }
+
+        synchronized void setVoterCount(long voterCount) {
+            this.voterCount = voterCount;
+        }
+
+        synchronized void applyBallot(Collection<Long> previousOptionIds, Collection<Long> newOptionIds) {
+            for (Long optionId : previousOptionIds) {
+                Integer index = optionIndex.get(optionId);
+                if (index != null) {
+                    optionCounts[index]--;
+                    totalVotes--;
+                }
+            }
+            for (Long optionId : newOptionIds) {
+                Integer index = optionIndex.get(optionId);
+                if (index != null) {
+                    optionCounts[index]++;
+                    totalVotes++;
+                }
+            }
+            if (previousOptionIds.isEmpty()) {
+                voterCount++;
+            }
+        }
+
+        public synchronized long getVoteCount(Long optionId) {
+            Integer index = optionIndex.get(optionId);
+            return index != null ? optionCounts[index] : 0;
+        }
+
+        public synchronized long getTotalVotes() {
+            return totalVotes;
+        }
+
+        public synchronized long getVoterCount() {
+            return voterCount;
+        }
+    }
+}
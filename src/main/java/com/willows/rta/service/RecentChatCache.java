@@ -0,0 +1,178 @@
+package com.willows.rta.service;
+
+import com.willows.rta.model.ChatMessage;
+import com.willows.rta.repository.ChatMessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * In-memory window over the newest chat messages
+ * Holds the last CAPACITY messages (oldest first) so page loads and polling
+ * are answered from memory. ChatService keeps it current after each commit;
+ * anything older than the window falls back to the repository.
+ * Hit/miss counts are published as chat.recent_cache.requests, and their
+ * ratio as chat.recent_cache.hit_ratio.
+ */
+@Service
+public class RecentChatCache {
+
+    static final int CAPACITY = 200;
+
+    private final ChatMessageRepository chatMessageRepository;
+    private final Counter hits;
+    private final Counter misses;
+
+    // Sorted by id, oldest first - guarded by "this"
+    private final List<ChatMessage> window = new ArrayList<>(CAPACITY + 1);
+    private boolean loaded;
+    // True when the window holds every message in the table (fewer than CAPACITY exist)
+    private boolean complete;
+
+    @Autowired
+    public RecentChatCache(ChatMessageRepository chatMessageRepository, MeterRegistry meterRegistry) {
+        this.chatMessageRepository = chatMessageRepository;
+        this.hits = Counter.builder("chat.recent_cache.requests")
+                .tag("result", "hit")
+                .description("Chat reads answered from the recent-messages cache")
+                .register(meterRegistry);
+        this.misses = Counter.builder("chat.recent_cache.requests")
+                .tag("result", "miss")
+                .description("Chat reads that fell back to the database")
+                .register(meterRegistry);
+        Gauge.builder("chat.recent_cache.size", this, RecentChatCache::size)
+                .description("Messages currently held in the recent-messages cache")
+                .register(meterRegistry);
+        Gauge.builder("chat.recent_cache.hit_ratio", this, RecentChatCache::getHitRatio)
+                .description("Share of chat reads answered from the recent-messages cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Newest messages, oldest first - null if the window can't answer
+     */
+    public synchronized List<ChatMessage> getLatest(int limit) {
+        ensureLoaded();
+        if (window.size() < limit && !complete) {
+            misses.increment();
+            if (limit > CAPACITY) {
+                return null;
+            }
+            // Deletes have shrunk the window - refill it from the database
+            loaded = false;
+            ensureLoaded();
+        } else {
+            hits.increment();
+        }
+        return new ArrayList<>(window.subList(Math.max(0, window.size() - limit), window.size()));
+    }
+
+    /**
+     * Messages older than beforeId, oldest first - null if the window can't answer
+     */
+    public synchronized List<ChatMessage> getOlderThan(Long beforeId, int limit) {
+        ensureLoaded();
+        int end = indexAfter(beforeId - 1);
+        if (end < limit && !complete) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return new ArrayList<>(window.subList(Math.max(0, end - limit), end));
+    }
+
+    /**
+     * Messages newer than lastId, oldest first - null if lastId is older than the window
+     */
+    public synchronized List<ChatMessage> getNewerThan(Long lastId) {
+        ensureLoaded();
+        boolean covered = complete || (!window.isEmpty() && lastId >= window.get(0).getId());
+        if (!covered) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return new ArrayList<>(window.subList(indexAfter(lastId), window.size()));
+    }
+
+    /**
+     * Add a committed message (or replace it, for an edit)
+     */
+    public synchronized void put(ChatMessage message) {
+        if (!loaded) {
+            return; // Picked up from the database on first load
+        }
+        int index = indexAfter(message.getId() - 1);
+        if (index < window.size() && window.get(index).getId().equals(message.getId())) {
+            window.set(index, message);
+            return;
+        }
+        if (index == 0 && !complete && window.size() >= CAPACITY) {
+            return; // Older than everything we hold
+        }
+        window.add(index, message);
+        if (window.size() > CAPACITY) {
+            window.remove(0);
+            complete = false;
+        }
+    }
+
+    /**
+     * Drop a committed message from the window
+     */
+    public synchronized void remove(Long messageId) {
+        window.removeIf(m -> m.getId().equals(messageId));
+    }
+
+    /**
+     * Forget everything and reload on next read (e.g. after a bulk delete)
+     */
+    public synchronized void invalidate() {
+        window.clear();
+        loaded = false;
+        complete = false;
+    }
+
+    public synchronized int size() {
+        return window.size();
+    }
+
+    private double getHitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        List<ChatMessage> latest = new ArrayList<>(chatMessageRepository.findLatest(PageRequest.of(0, CAPACITY)));
+        Collections.reverse(latest);
+        window.clear();
+        window.addAll(latest);
+        complete = latest.size() < CAPACITY;
+        loaded = true;
+    }
+
+    // Index of the first message with an id greater than the given id
+    private int indexAfter(long id) {
+        int low = 0;
+        int high = window.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (window.get(mid).getId() <= id) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,45 @@
+package com.willows.rta.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Run work once the current transaction commits
+ * Cache updates, notifications and counters use this so nobody sees a change that is
+ * later rolled back. Outside a transaction the work runs straight away.
+ */
+final class TransactionCallbacks {
+
+    private TransactionCallbacks() {
+    }
+
+    /**
+     * Run an action after the current transaction commits (not at all if it rolls back)
+     */
+    static void afterCommit(Runnable action) {
+        register(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Register callbacks on the current transaction
+     * Outside a transaction they run straight away as if it had just committed:
+     * beforeCommit, afterCommit, then afterCompletion (even if afterCommit throws)
+     */
+    static void register(TransactionSynchronization synchronization) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(synchronization);
+            return;
+        }
+        synchronization.beforeCommit(false);
+        try {
+            synchronization.afterCommit();
+        } finally {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+    }
+}
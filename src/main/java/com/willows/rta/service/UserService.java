@@ -2,28 +2,42 @@ package com.willows.rta.service;
 
 import com.willows.rta.model.User;
 import com.willows.rta.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 
 @Service
 public class UserService implements UserDetailsService {
 
+    private static final Logger logger = LoggerFactory.getLogger(UserService.class);
+
+    // Lock account for 15 minutes once LoginThrottle's failure limit is reached
+    private static final int LOCK_MINUTES = 15;
+
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final LoginThrottle loginThrottle;
+    private final Executor taskExecutor;
 
     @Autowired
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordHashingService passwordHashingService,
+                       LoginThrottle loginThrottle, @Qualifier("taskExecutor") Executor taskExecutor) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
+        this.loginThrottle = loginThrottle;
+        this.taskExecutor = taskExecutor;
     }
 
     @Override
@@ -48,7 +62,7 @@ public class UserService implements UserDetailsService {
 
         User user = new User();
         user.setUsername(username);
-        user.setPassword(passwordEncoder.encode(rawPassword));
+        user.setPassword(passwordHashingService.encode(rawPassword));
         user.setRole(role);
         user.setEnabled(true);
         
@@ -71,7 +85,7 @@ public class UserService implements UserDetailsService {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
-        user.setPassword(passwordEncoder.encode(newRawPassword));
+        user.setPassword(passwordHashingService.encode(newRawPassword));
         userRepository.save(user);
     }
 
@@ -90,7 +104,7 @@ public class UserService implements UserDetailsService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
-        user.setPassword(passwordEncoder.encode(newPassword));
+        user.setPassword(passwordHashingService.encode(newPassword));
         user.setPasswordChangeRequired(false); // Clear the flag after password change
         userRepository.save(user);
     }
@@ -100,53 +114,84 @@ public class UserService implements UserDetailsService {
         return userRepository.save(user);
     }
 
-    // Record failed login attempt
-    public void recordFailedLoginAttempt(String username) {
-        Optional<User> userOpt = userRepository.findByUsername(username);
-        if (userOpt.isPresent()) {
-            User user = userOpt.get();
-            user.setFailedLoginAttempts(user.getFailedLoginAttempts() + 1);
-            
-            // Lock account after 5 failed attempts for 15 minutes
-            if (user.getFailedLoginAttempts() >= 5) {
-                user.setAccountLockedUntil(LocalDateTime.now().plusMinutes(15));
+    /**
+     * Authenticate a login attempt
+     * Throttled usernames and IPs are turned away before any database or bcrypt work.
+     * Otherwise the user (with member) is loaded once and checked in memory; failures are
+     * only counted in LoginThrottle, and the database is written when the account's exact
+     * failure count crosses the lockout threshold or the login succeeds
+     */
+    public LoginResult authenticate(String username, String rawPassword, String clientIp) {
+        if (loginThrottle.isIpBlocked(clientIp)) {
+            return new LoginResult(LoginResult.THROTTLED, null, 0);
+        }
+        if (loginThrottle.isUsernameBlocked(username)) {
+            return new LoginResult(LoginResult.LOCKED, null, 0);
+        }
+
+        Optional<User> userOpt = userRepository.findForLogin(username);
+        if (userOpt.isEmpty()) {
+            // Don't reveal if username exists - the attempt only counts against the client IP
+            loginThrottle.recordIpFailure(clientIp);
+            return new LoginResult(LoginResult.INVALID, null, 0);
+        }
+
+        User user = userOpt.get();
+        LocalDateTime now = LocalDateTime.now();
+
+        if (user.isAccountLocked()) {
+            return new LoginResult(LoginResult.LOCKED, user, 0);
+        }
+
+        // Disabled by an administrator
+        if (!user.isEnabled()) {
+            return new LoginResult(LoginResult.DISABLED, user, 0);
+        }
+
+        if (!passwordHashingService.matches(rawPassword, user.getPassword())) {
+            loginThrottle.recordIpFailure(clientIp);
+            int failures = loginThrottle.recordAccountFailure(username);
+            int limit = loginThrottle.getUsernameLimit();
+
+            if (failures >= limit) {
+                // Threshold crossed - persist the lockout so it holds across restarts and instances
+                userRepository.lockAccount(user.getId(), failures, now, now.plusMinutes(LOCK_MINUTES));
                 System.out.println("Account locked due to failed login attempts: " + username);
+                return new LoginResult(LoginResult.LOCKED_NOW, user, 0);
             }
-            
-            userRepository.save(user);
+            return new LoginResult(LoginResult.INVALID, user, limit - failures);
         }
-    }
 
-    // Reset failed login attempts (after successful login)
-    public void resetFailedLoginAttempts(String username) {
-        Optional<User> userOpt = userRepository.findByUsername(username);
-        if (userOpt.isPresent()) {
-            User user = userOpt.get();
-            user.setFailedLoginAttempts(0);
-            user.setAccountLockedUntil(null);
-            user.setLastLogin(LocalDateTime.now());
-            userRepository.save(user);
+        loginThrottle.reset(username);
+        if (userRepository.recordLoginSuccess(user.getId(), now) == 0) {
+            // Locked by a concurrent failed attempt
+            return new LoginResult(LoginResult.LOCKED, user, 0);
+        }
+
+        // Hash made with a lower cost factor - upgrade it in the background while we have the
+        // raw password; the login has already succeeded, so a busy pool just leaves it for next time
+        if (passwordHashingService.needsRehash(user.getPassword())) {
+            Long userId = user.getId();
+            String oldHash = user.getPassword();
+            passwordHashingService.encodeInBackground(rawPassword,
+                    newHash -> saveRehashedPassword(userId, oldHash, newHash));
         }
+        return new LoginResult(LoginResult.SUCCESS, user, 0);
     }
 
-    // Check if account is locked due to failed attempts
-    public boolean isAccountLocked(String username) {
-        Optional<User> userOpt = userRepository.findByUsername(username);
-        if (userOpt.isPresent()) {
-            User user = userOpt.get();
-            
-            // If lock has expired, clear it
-            if (user.getAccountLockedUntil() != null && 
-                LocalDateTime.now().isAfter(user.getAccountLockedUntil())) {
-                user.setFailedLoginAttempts(0);
-                user.setAccountLockedUntil(null);
-                userRepository.save(user);
-                return false;
-            }
-            
-            return user.isAccountLocked();
+    // Called on a hashing thread - the database write goes to the task executor so the
+    // CPU-sized hashing pool never waits on a round-trip
+    private void saveRehashedPassword(Long userId, String oldHash, String newHash) {
+        try {
+            taskExecutor.execute(() -> userRepository.updatePasswordHash(userId, oldHash, newHash));
+        } catch (TaskRejectedException e) {
+            logger.debug("Task executor busy - password rehash for user {} left for next login", userId);
         }
-        return false;
+    }
+
+    // Failed logins for this user in the throttle's current window (admin views)
+    public int getRecentFailedLogins(String username) {
+        return loginThrottle.getFailureCount(username);
     }
 
     // Manually unlock account (admin action)
@@ -158,5 +203,33 @@ public class UserService implements UserDetailsService {
             user.setAccountLockedUntil(null);
             userRepository.save(user);
         }
+        loginThrottle.reset(username);
+    }
+
+    /**
+     * Inner class for the outcome of a login attempt
+     */
+    public static class LoginResult {
+        public static final String SUCCESS = "SUCCESS";
+        public static final String INVALID = "INVALID";       // Unknown user or wrong password
+        public static final String LOCKED = "LOCKED";         // Already locked by failed attempts
+        public static final String LOCKED_NOW = "LOCKED_NOW"; // This attempt triggered the lock
+        public static final String DISABLED = "DISABLED";     // Disabled by an administrator
+        public static final String THROTTLED = "THROTTLED";   // Too many failures from this client IP
+
+        private final String outcome;
+        private final User user;
+        private final int remainingAttempts;
+
+        public LoginResult(String outcome, User user, int remainingAttempts) {
+            this.outcome = outcome;
+            this.user = user;
+            this.remainingAttempts = remainingAttempts;
+        }
+
+        public String getOutcome() { return outcome; }
+        public User getUser() { return user; }
+        public int getRemainingAttempts() { return remainingAttempts; }
+        public boolean isSuccess() { return SUCCESS.equals(outcome); }
     }
 }
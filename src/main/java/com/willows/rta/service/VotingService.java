@@ -1,9 +1,11 @@
 package com.willows.rta.service;
 
+import com.willows.rta.model.Ballot;
 import com.willows.rta.model.Member;
 import com.willows.rta.model.Poll;
 import com.willows.rta.model.PollOption;
 import com.willows.rta.model.Vote;
+import com.willows.rta.repository.BallotRepository;
 import com.willows.rta.repository.PollRepository;
 import com.willows.rta.repository.PollOptionRepository;
 import com.willows.rta.repository.VoteRepository;
@@ -13,8 +15,16 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 
 /**
  * Service for handling voting operations
@@ -26,78 +36,123 @@ public class VotingService {
     private final PollRepository pollRepository;
     private final PollOptionRepository pollOptionRepository;
     private final MemberService memberService;
+    private final PollTallyCache pollTallyCache;
+    private final BallotRepository ballotRepository;
 
     @Autowired
     public VotingService(VoteRepository voteRepository,
                         PollRepository pollRepository,
                         PollOptionRepository pollOptionRepository,
-                        MemberService memberService) {
+                        MemberService memberService,
+                        PollTallyCache pollTallyCache,
+                        BallotRepository ballotRepository) {
         this.voteRepository = voteRepository;
         this.pollRepository = pollRepository;
         this.pollOptionRepository = pollOptionRepository;
         this.memberService = memberService;
+        this.pollTallyCache = pollTallyCache;
+        this.ballotRepository = ballotRepository;
     }
 
     /**
      * Cast vote(s) on a poll
      * For single choice: optionIds should have 1 element
      * For multiple choice: optionIds can have multiple elements
+     * Runs a fixed number of statements however many options are selected:
+     * options are validated in one query and the votes inserted as one JDBC batch
      */
     @Transactional
     public void castVote(Long pollId, List<Long> optionIds, Long memberId) {
-        // Validate poll exists and is active
-        Poll poll = pollRepository.findById(pollId)
+        castVote(pollId, optionIds, memberId, null);
+    }
+
+    /**
+     * Cast vote(s) on a poll as an idempotent ballot submission
+     * The ballot token identifies one submission of the voting form: repeating it
+     * (double-click, resubmitted tab) is accepted silently without recording anything twice.
+     * A null token is treated as a fresh submission.
+     */
+    @Transactional
+    public void castVote(Long pollId, List<Long> optionIds, Long memberId, String ballotToken) {
+        // Validate poll exists and is active (version re-checked at commit in case it closes meanwhile)
+        Poll poll = pollRepository.findForVotingById(pollId)
                 .orElseThrow(() -> new RuntimeException("Poll not found"));
         
         if (!"ACTIVE".equals(poll.getStatus())) {
             throw new RuntimeException("Poll is not active");
         }
         
-        // Check if poll is expired
+        // Check if poll is expired - PollDeadlineScheduler closes it promptly, but its timer
+        // may not exist yet (startup) or may live on another instance
         if (poll.isExpired()) {
             throw new RuntimeException("Poll has expired");
         }
         
+        // Validate option count based on poll type
+        List<Long> selectedOptionIds = new ArrayList<>(new LinkedHashSet<>(optionIds));
+        
+        if ("SINGLE_CHOICE".equals(poll.getPollType()) && selectedOptionIds.size() != 1) {
+            throw new RuntimeException("Single choice polls require exactly one option");
+        }
+        
+        if ("MULTIPLE_CHOICE".equals(poll.getPollType()) && selectedOptionIds.isEmpty()) {
+            throw new RuntimeException("You must select at least one option");
+        }
+        
+        // Validate all options belong to this poll in a single query
+        List<PollOption> options = pollOptionRepository.findByPollIdAndIdIn(pollId, selectedOptionIds);
+        if (options.size() != selectedOptionIds.size()) {
+            throw new RuntimeException("Option does not belong to this poll");
+        }
+        
         // Validate member
         Member member = memberService.getMemberById(memberId)
                 .orElseThrow(() -> new RuntimeException("Member not found"));
         
-        // Check if already voted
-        boolean hasVoted = voteRepository.existsByPollIdAndMemberId(pollId, memberId);
+        // Record the ballot - a first vote or a resubmitted form takes no row lock. A revote
+        // deliberately does: it locks this member's ballot row so that their concurrent
+        // revotes replace the vote rows one at a time instead of leaving both sets behind
+        String token = (ballotToken != null && !ballotToken.isBlank())
+                ? ballotToken
+                : UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        int accepted = ballotRepository.insertBallot(pollId, memberId, token, now);
+        if (accepted == 0 && Boolean.TRUE.equals(poll.getAllowRevote())) {
+            accepted = ballotRepository.replaceBallot(pollId, memberId, token, now);
+        }
         
-        if (hasVoted && !poll.getAllowRevote()) {
+        if (accepted == 0) {
+            Optional<Ballot> existing = ballotRepository.findByPollIdAndMemberId(pollId, memberId);
+            if (existing.isPresent() && token.equals(existing.get().getBallotToken())) {
+                return; // Same submission already recorded
+            }
             throw new RuntimeException("You have already voted on this poll");
         }
         
-        // If revoting is allowed, delete previous votes
-        if (hasVoted && poll.getAllowRevote()) {
-            voteRepository.deleteByPollIdAndMemberId(pollId, memberId);
-        }
+        // Check if already voted (the previous options are needed for the tally anyway)
+        List<Long> previousOptionIds = voteRepository.findOptionIdsByPollIdAndMemberId(pollId, memberId);
+        boolean hasVoted = !previousOptionIds.isEmpty();
         
-        // Validate option count based on poll type
-        if ("SINGLE_CHOICE".equals(poll.getPollType()) && optionIds.size() != 1) {
-            throw new RuntimeException("Single choice polls require exactly one option");
+        if (hasVoted && !poll.getAllowRevote()) {
+            throw new RuntimeException("You have already voted on this poll");
         }
         
-        if ("MULTIPLE_CHOICE".equals(poll.getPollType()) && optionIds.isEmpty()) {
-            throw new RuntimeException("You must select at least one option");
+        // If revoting is allowed, delete previous votes
+        if (hasVoted) {
+            voteRepository.deleteAllByPollIdAndMemberId(pollId, memberId);
         }
         
-        // Validate all options belong to this poll and cast votes
+        // Cast votes - saved together so Hibernate sends them as one insert batch
         boolean isAnonymous = "ANONYMOUS".equals(poll.getVisibility());
         
-        for (Long optionId : optionIds) {
-            PollOption option = pollOptionRepository.findById(optionId)
-                    .orElseThrow(() -> new RuntimeException("Option not found"));
-            
-            if (!option.getPoll().getId().equals(pollId)) {
-                throw new RuntimeException("Option does not belong to this poll");
-            }
-            
-            // Create vote
-            Vote vote = new Vote(poll, option, member, isAnonymous);
-            voteRepository.save(vote);
+        List<Vote> votes = new ArrayList<>();
+        for (PollOption option : options) {
+            votes.add(new Vote(poll, option, member, isAnonymous));
         }
+        voteRepository.saveAll(votes);
+        
+        // Keep the live tally in step once this ballot commits
+        pollTallyCache.recordBallot(pollId, previousOptionIds, selectedOptionIds);
     }
 
     /**
@@ -107,6 +162,29 @@ public class VotingService {
         return voteRepository.existsByPollIdAndMemberId(pollId, memberId);
     }
 
+    /**
+     * Ids of the given polls that a member has voted on (single query)
+     */
+    public Set<Long> getVotedPollIds(Long memberId, Collection<Long> pollIds) {
+        if (pollIds.isEmpty()) {
+            return Collections.emptySet();
+        }
+        return new HashSet<>(voteRepository.findVotedPollIds(memberId, pollIds));
+    }
+
+    /**
+     * Pair each poll with the member's voted status for the polls list
+     */
+    public List<MemberPollView> getMemberPollViews(List<Poll> polls, Long memberId) {
+        Set<Long> votedPollIds = getVotedPollIds(memberId, polls.stream().map(Poll::getId).toList());
+        
+        List<MemberPollView> views = new ArrayList<>(polls.size());
+        for (Poll poll : polls) {
+            views.add(new MemberPollView(poll, votedPollIds.contains(poll.getId())));
+        }
+        return views;
+    }
+
     /**
      * Get member's vote(s) for a poll
      */
@@ -130,28 +208,46 @@ public class VotingService {
 
     /**
      * Get poll results with vote counts per option
+     * Counts come from the live tally (active polls) or one grouped query, and voter
+     * names (open polls) from one more, so the cost does not grow with the number of votes
      */
     public PollResults getPollResults(Long pollId) {
         Poll poll = pollRepository.findById(pollId)
                 .orElseThrow(() -> new RuntimeException("Poll not found"));
         
         List<PollOption> options = pollOptionRepository.findByPollIdOrderByDisplayOrder(pollId);
-        List<Vote> allVotes = voteRepository.findByPollId(pollId);
+        
+        // Active polls read counts from the live tally, others from one grouped query
+        Map<Long, Long> countsByOption = new HashMap<>();
+        long totalVotes = 0;
+        if (poll.isActive()) {
+            PollTallyCache.PollTally tally = pollTallyCache.getTally(pollId);
+            for (PollOption option : options) {
+                countsByOption.put(option.getId(), tally.getVoteCount(option.getId()));
+            }
+            totalVotes = tally.getTotalVotes();
+        } else {
+            for (VoteRepository.OptionVoteCount row : voteRepository.countVotesByOption(pollId)) {
+                countsByOption.put(row.getOptionId(), row.getVoteCount());
+                totalVotes += row.getVoteCount();
+            }
+        }
+        
+        // Get voters (only for open polls)
+        Map<Long, List<String>> votersByOption = new HashMap<>();
+        if ("OPEN".equals(poll.getVisibility())) {
+            for (VoteRepository.OptionVoter row : voteRepository.findVoterNamesByPollId(pollId)) {
+                votersByOption.computeIfAbsent(row.getOptionId(), k -> new ArrayList<>())
+                        .add(row.getVoterName());
+            }
+        }
         
         List<OptionResult> optionResults = new ArrayList<>();
         
         for (PollOption option : options) {
-            long voteCount = voteRepository.countByOptionId(option.getId());
-            double percentage = allVotes.size() > 0 ? (voteCount * 100.0 / allVotes.size()) : 0;
-            
-            // Get voters (only for open polls)
-            List<String> voters = new ArrayList<>();
-            if ("OPEN".equals(poll.getVisibility())) {
-                List<Vote> optionVotes = voteRepository.findByOptionId(option.getId());
-                for (Vote vote : optionVotes) {
-                    voters.add(vote.getMember().getFullName());
-                }
-            }
+            long voteCount = countsByOption.getOrDefault(option.getId(), 0L);
+            double percentage = totalVotes > 0 ? (voteCount * 100.0 / totalVotes) : 0;
+            List<String> voters = votersByOption.getOrDefault(option.getId(), new ArrayList<>());
             
             optionResults.add(new OptionResult(
                 option.getId(),
@@ -166,7 +262,7 @@ public class VotingService {
             pollId,
             poll.getTitle(),
             poll.getVisibility(),
-            allVotes.size(),
+            totalVotes,
             optionResults
         );
     }
@@ -182,17 +278,12 @@ public class VotingService {
             throw new RuntimeException("Cannot get voter names for anonymous polls");
         }
         
-        List<Vote> votes = voteRepository.findByPollId(pollId);
-        List<String> voterNames = new ArrayList<>();
-        
-        for (Vote vote : votes) {
-            String name = vote.getMember().getFullName();
-            if (!voterNames.contains(name)) {
-                voterNames.add(name);
-            }
+        Set<String> voterNames = new LinkedHashSet<>();
+        for (VoteRepository.OptionVoter row : voteRepository.findVoterNamesByPollId(pollId)) {
+            voterNames.add(row.getVoterName());
         }
         
-        return voterNames;
+        return new ArrayList<>(voterNames);
     }
 
     /**
@@ -223,6 +314,23 @@ public class VotingService {
         }
     }
 
+    /**
+     * Inner class for a poll as seen by one member (polls list)
+     */
+    public static class MemberPollView {
+        private Poll poll;
+        private boolean voted;
+
+        public MemberPollView(Poll poll, boolean voted) {
+            this.poll = poll;
+            this.voted = voted;
+        }
+
+        public Poll getPoll() { return poll; }
+        public boolean isVoted() { return voted; }
+        public boolean isCanChangeVote() { return voted && Boolean.TRUE.equals(poll.getAllowRevote()); }
+    }
+
     /**
      * Inner class for poll results
      */
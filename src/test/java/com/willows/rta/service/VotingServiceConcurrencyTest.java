@@ -0,0 +1,204 @@
+package com.willows.rta.service;
+
+import com.willows.rta.model.Ballot;
+import com.willows.rta.model.Member;
+import com.willows.rta.model.Poll;
+import com.willows.rta.model.PollOption;
+import com.willows.rta.repository.BallotRepository;
+import com.willows.rta.repository.MemberRepository;
+import com.willows.rta.repository.PollOptionRepository;
+import com.willows.rta.repository.VoteRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hundreds of simultaneous ballots against a real PostgreSQL (the ballot insert relies on ON CONFLICT)
+ * Every case checks that no submission fails unexpectedly and that the counts come out exact.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "app.email.enabled=false"
+})
+@Testcontainers
+class VotingServiceConcurrencyTest {
+
+    private static final int SUBMISSIONS = 200;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private VotingService votingService;
+
+    @Autowired
+    private PollService pollService;
+
+    @Autowired
+    private PollTallyCache pollTallyCache;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private PollOptionRepository pollOptionRepository;
+
+    @Autowired
+    private VoteRepository voteRepository;
+
+    @Autowired
+    private BallotRepository ballotRepository;
+
+    @Test
+    void differentMembersAreAllCounted() throws Exception {
+        Poll poll = createActivePoll(false);
+        Long optionId = firstOptionId(poll);
+        List<Long> memberIds = new ArrayList<>();
+        for (int i = 0; i < SUBMISSIONS; i++) {
+            memberIds.add(createMember().getId());
+        }
+
+        Queue<Throwable> errors = runConcurrently(SUBMISSIONS, i ->
+                votingService.castVote(poll.getId(), List.of(optionId), memberIds.get(i), UUID.randomUUID().toString()));
+
+        assertTrue(errors.isEmpty(), () -> "Unexpected failures: " + errors);
+        assertEquals(SUBMISSIONS, voteRepository.countByPollId(poll.getId()));
+        assertEquals(SUBMISSIONS, voteRepository.countDistinctVotersByPollId(poll.getId()));
+        assertEquals(SUBMISSIONS, pollTallyCache.getTally(poll.getId()).getTotalVotes());
+    }
+
+    @Test
+    void sameTokenIsRecordedOnce() throws Exception {
+        Poll poll = createActivePoll(false);
+        Long optionId = firstOptionId(poll);
+        Long memberId = createMember().getId();
+        String token = UUID.randomUUID().toString();
+
+        Queue<Throwable> errors = runConcurrently(SUBMISSIONS, i ->
+                votingService.castVote(poll.getId(), List.of(optionId), memberId, token));
+
+        assertTrue(errors.isEmpty(), () -> "Unexpected failures: " + errors);
+        assertEquals(1, voteRepository.countByPollId(poll.getId()));
+        assertEquals(1, pollTallyCache.getTally(poll.getId()).getTotalVotes());
+        Ballot ballot = ballotRepository.findByPollIdAndMemberId(poll.getId(), memberId).orElseThrow();
+        assertEquals(token, ballot.getBallotToken());
+        assertEquals(1, ballot.getRevision());
+    }
+
+    @Test
+    void differentTokensFromOneMemberAreRevotes() throws Exception {
+        Poll poll = createActivePoll(true);
+        List<Long> optionIds = optionIds(poll);
+        Long memberId = createMember().getId();
+
+        Queue<Throwable> errors = runConcurrently(SUBMISSIONS, i ->
+                votingService.castVote(poll.getId(), List.of(optionIds.get(i % optionIds.size())), memberId,
+                        UUID.randomUUID().toString()));
+
+        assertTrue(errors.isEmpty(), () -> "Unexpected failures: " + errors);
+        // Single choice: only the last revote's one vote row is left
+        assertEquals(1, voteRepository.countByPollId(poll.getId()));
+        assertEquals(1, pollTallyCache.getTally(poll.getId()).getTotalVotes());
+        Ballot ballot = ballotRepository.findByPollIdAndMemberId(poll.getId(), memberId).orElseThrow();
+        assertEquals(SUBMISSIONS, ballot.getRevision());
+    }
+
+    @Test
+    void differentTokensFromOneMemberWithoutRevoteAcceptOnlyOne() throws Exception {
+        Poll poll = createActivePoll(false);
+        Long optionId = firstOptionId(poll);
+        Long memberId = createMember().getId();
+        AtomicInteger rejected = new AtomicInteger();
+
+        Queue<Throwable> errors = runConcurrently(SUBMISSIONS, i -> {
+            try {
+                votingService.castVote(poll.getId(), List.of(optionId), memberId, UUID.randomUUID().toString());
+            } catch (RuntimeException e) {
+                if (!"You have already voted on this poll".equals(e.getMessage())) {
+                    throw e;
+                }
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertTrue(errors.isEmpty(), () -> "Unexpected failures: " + errors);
+        assertEquals(SUBMISSIONS - 1, rejected.get());
+        assertEquals(1, voteRepository.countByPollId(poll.getId()));
+        assertEquals(1, pollTallyCache.getTally(poll.getId()).getTotalVotes());
+    }
+
+    // Start every submission at the same moment and collect whatever they throw
+    private Queue<Throwable> runConcurrently(int count, Submission submission) throws InterruptedException {
+        Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(50);
+        try {
+            for (int i = 0; i < count; i++) {
+                int index = i;
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                        submission.submit(index);
+                    } catch (Throwable t) {
+                        errors.add(t);
+                    }
+                });
+            }
+            start.countDown();
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES), "Submissions did not finish in time");
+        return errors;
+    }
+
+    private Poll createActivePoll(boolean allowRevote) {
+        Poll poll = new Poll("Concurrency " + UUID.randomUUID(), null, "SINGLE_CHOICE", "OPEN");
+        poll.setAllowRevote(allowRevote);
+        Poll created = pollService.createPoll(poll, List.of("Yes", "No", "Abstain"), 1L);
+        return pollService.publishPoll(created.getId());
+    }
+
+    private List<Long> optionIds(Poll poll) {
+        return pollOptionRepository.findByPollIdOrderByDisplayOrder(poll.getId()).stream()
+                .map(PollOption::getId)
+                .toList();
+    }
+
+    private Long firstOptionId(Poll poll) {
+        return optionIds(poll).get(0);
+    }
+
+    private Member createMember() {
+        Member member = new Member();
+        member.setFullName("Test Member");
+        member.setFlatNumber("1");
+        member.setAddress("1 Test Street");
+        member.setEmail(UUID.randomUUID() + "@example.com");
+        member.setPhoneNumber("00000000000");
+        return memberRepository.save(member);
+    }
+
+    private interface Submission {
+        void submit(int index);
+    }
+}